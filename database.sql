@@ -41,3 +41,78 @@ TRUNCATE TABLE contacts;
 
 DESC contacts;
 
+
+ALTER TABLE contacts
+    ADD COLUMN updated_at BIGINT;
+
+# contact lama diisi 0 supaya ikut terambil full sync (since = 0, sinceId kosong), baru setelah itu NOT NULL
+UPDATE contacts SET updated_at = 0 WHERE updated_at IS NULL;
+
+ALTER TABLE contacts
+    MODIFY COLUMN updated_at BIGINT NOT NULL;
+
+# index untuk sync, supaya query perubahan sejak watermark tidak scan seluruh contact milik user
+CREATE INDEX idx_contacts_username_updated_at ON contacts (username, updated_at, id);
+
+CREATE TABLE contact_tombstones(
+    id VARCHAR(100) NOT NULL,
+    username VARCHAR(100) NOT NULL,
+    deleted_at BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_contact_tombstones_username_deleted_at (username, deleted_at, id),
+    FOREIGN KEY fk_users_contact_tombstones (username) REFERENCES users(username)
+)ENGINE InnoDB;
+
+SELECT * FROM contact_tombstones;
+
+DESC contact_tombstones;
+
+ALTER TABLE contacts
+    ADD COLUMN phone_normalized VARCHAR(100),
+    ADD COLUMN email_normalized VARCHAR(100);
+
+# lookup nomor telepon / email jadi satu index seek, bukan like '%...%'
+CREATE INDEX idx_contacts_username_phone_normalized ON contacts (username, phone_normalized);
+
+CREATE INDEX idx_contacts_username_email_normalized ON contacts (username, email_normalized);
+
+# nomor yang dulu dinormalisasi tanpa "+" (misal 62812...) disamakan dengan bentuk +62812...
+UPDATE contacts SET phone_normalized = CONCAT('+', phone_normalized)
+WHERE phone_normalized <> '' AND phone_normalized NOT LIKE '+%';
+
+# transactional outbox, ditulis di transaksi yang sama dengan perubahan contact / user
+CREATE TABLE outbox_events(
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(50) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    username VARCHAR(100) NOT NULL,
+    payload MEDIUMTEXT NOT NULL,
+    created_at BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_outbox_events_created_at (created_at)
+)ENGINE InnoDB;
+
+SELECT * FROM outbox_events;
+
+DESC outbox_events;
+
+# posisi stream diberikan relay setelah event commit, jadi urutan stream mengikuti urutan commit.
+# Event lama memakai id sebagai posisi supaya cursor consumer yang sudah ada tetap berlaku
+ALTER TABLE outbox_events ADD COLUMN stream_position BIGINT NULL;
+
+UPDATE outbox_events SET stream_position = id WHERE stream_position IS NULL;
+
+CREATE UNIQUE INDEX uk_outbox_events_stream_position ON outbox_events (stream_position);
+
+# posisi terakhir yang sudah diberikan, row ini dikunci relay supaya relay di beberapa instance bergiliran
+CREATE TABLE outbox_relay_state(
+    id INT NOT NULL,
+    last_position BIGINT NOT NULL,
+    PRIMARY KEY (id)
+)ENGINE InnoDB;
+
+INSERT INTO outbox_relay_state (id, last_position)
+SELECT 1, COALESCE(MAX(stream_position), 0) FROM outbox_events;
+
+# token sudah UNIQUE (lihat CREATE TABLE users), index ini untuk sweeper token expired
+CREATE INDEX idx_users_token_expired_at ON users (token_expired_at);
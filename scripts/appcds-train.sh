@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Membuat AppCDS archive (JDK 13+) dari training run ke endpoint /api, lalu aplikasi bisa dijalankan dengan archive tersebut.
+# Class dari archive langsung di-map ke memory, jadi parsing dan verifikasi class saat start dilewati.
+# MySQL harus sudah jalan sesuai application.properties.
+#
+#   scripts/appcds-train.sh          build (profile cds), susun classpath di target/cds, training run, tulis target/cds/app.jsa
+#   scripts/appcds-train.sh run      jalankan aplikasi memakai archive
+#
+# CDS hanya bisa mengarsip class dari file jar biasa (bukan nested jar di dalam fat jar Spring Boot),
+# jadi fat jar dibongkar menjadi app.jar + lib/*.jar dengan urutan classpath yang tetap.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CDS_DIR=target/cds
+ARCHIVE="${CDS_DIR}/app.jsa"
+PORT="${PORT:-8080}"
+MAIN_CLASS=programmerzamannow.restful.BelajarSpringResTfulApiApplication
+BASE_URL="http://localhost:${PORT}"
+
+classpath() {
+    # classpath saat training dan saat run harus sama persis
+    cat "${CDS_DIR}/classpath.txt"
+}
+
+if [[ "${1:-}" == "run" ]]; then
+    shift
+    exec java -XX:SharedArchiveFile="${ARCHIVE}" -Xlog:cds=off -cp "$(classpath)" ${JAVA_OPTS:-} "${MAIN_CLASS}" "$@"
+fi
+
+./mvnw -B -q -Pcds -DskipTests clean package
+
+rm -rf "${CDS_DIR}"
+mkdir -p "${CDS_DIR}/lib"
+cp target/*.jar.original "${CDS_DIR}/app.jar"
+(cd "${CDS_DIR}" && jar xf ../*-SNAPSHOT.jar BOOT-INF/lib && mv BOOT-INF/lib/*.jar lib/ && rm -rf BOOT-INF)
+{
+    printf '%s' "${CDS_DIR}/app.jar"
+    for jar in $(ls "${CDS_DIR}"/lib/*.jar | sort); do
+        printf ':%s' "${jar}"
+    done
+} > "${CDS_DIR}/classpath.txt"
+
+java -XX:ArchiveClassesAtExit="${ARCHIVE}" -cp "$(classpath)" "${MAIN_CLASS}" --server.port="${PORT}" \
+    > "${CDS_DIR}/training.log" 2>&1 &
+pid=$!
+
+until curl -sf -o /dev/null "${BASE_URL}/actuator/health"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+        echo "training run exited before it became ready, see ${CDS_DIR}/training.log" >&2
+        exit 1
+    fi
+    sleep 0.2
+done
+
+# jalur yang dipakai request biasa, supaya class controller, validasi, Jackson, Hibernate dan BCrypt ikut masuk archive
+user="cds$(date +%s)"
+json='Content-Type: application/json'
+curl -sf -o /dev/null -X POST -H "${json}" "${BASE_URL}/api/users" \
+    -d "{\"username\":\"${user}\",\"password\":\"rahasia\",\"name\":\"Training\"}"
+token=$(curl -sf -X POST -H "${json}" "${BASE_URL}/api/auth/login" \
+    -d "{\"username\":\"${user}\",\"password\":\"rahasia\"}" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+auth="X-API-TOKEN: ${token}"
+
+curl -sf -o /dev/null -H "${auth}" "${BASE_URL}/api/users/current"
+curl -sf -o /dev/null -X PATCH -H "${auth}" -H "${json}" "${BASE_URL}/api/users/current" -d '{"name":"Training CDS"}'
+contact=$(curl -sf -X POST -H "${auth}" -H "${json}" "${BASE_URL}/api/contacts" \
+    -d '{"firstName":"Training","lastName":"CDS","email":"training@example.com","phone":"08123456789"}' \
+    | sed -E 's/.*"id":"([^"]+)".*/\1/')
+curl -sf -o /dev/null -H "${auth}" "${BASE_URL}/api/contacts/${contact}"
+curl -sf -o /dev/null -X PUT -H "${auth}" -H "${json}" "${BASE_URL}/api/contacts/${contact}" \
+    -d '{"firstName":"Training","lastName":"AppCDS","email":"training@example.com","phone":"08123456789"}'
+curl -sf -o /dev/null -H "${auth}" "${BASE_URL}/api/contacts/search?q=train"
+curl -sf -o /dev/null -H "${auth}" "${BASE_URL}/api/contacts/suggest?q=tr"
+curl -sf -o /dev/null -X DELETE -H "${auth}" "${BASE_URL}/api/contacts/${contact}"
+curl -sf -o /dev/null -X POST -H "${json}" "${BASE_URL}/api/auth/login" -d "{\"username\":\"${user}\",\"password\":\"salah\"}" || true
+curl -sf -o /dev/null -X DELETE -H "${auth}" "${BASE_URL}/api/auth/logout"
+
+# archive ditulis saat JVM keluar dengan normal
+kill -TERM "${pid}"
+wait "${pid}" || true
+
+ls -lh "${ARCHIVE}"
@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+# Membandingkan waktu start (sampai request pertama berhasil) dan RSS saat idle antara build JVM, JVM + AppCDS dan native.
+# MySQL harus sudah jalan sesuai application.properties.
+#
+# Build dulu:
+#   ./mvnw -DskipTests package            -> target/belajar-spring-restful-api-0.0.1-SNAPSHOT.jar
+#   scripts/appcds-train.sh               -> target/cds (classpath tanpa dan dengan archive)
+#   ./mvnw -Pnative -DskipTests package   -> target/belajar-spring-restful-api
+#
+# Pemakaian: scripts/startup-benchmark.sh [jumlah-run]
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+IDLE_SECONDS="${IDLE_SECONDS:-10}"
+JAR="${JAR:-target/belajar-spring-restful-api-0.0.1-SNAPSHOT.jar}"
+NATIVE="${NATIVE:-target/belajar-spring-restful-api}"
+CDS_DIR="${CDS_DIR:-target/cds}"
+MAIN_CLASS=programmerzamannow.restful.BelajarSpringResTfulApiApplication
+URL="http://localhost:${PORT}/actuator/health"
+
+now_ms() {
+    date +%s%3N
+}
+
+# start aplikasi, tunggu sampai health menjawab, lalu cetak "<startup-ms> <rss-kb>"
+measure() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    "$@" --server.port="${PORT}" >/dev/null 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "${URL}"; do
+        if ! kill -0 "${pid}" 2>/dev/null; then
+            echo "process exited before it became ready: $*" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+
+    sleep "${IDLE_SECONDS}"
+    rss=$(ps -o rss= -p "${pid}" | tr -d ' ')
+
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    echo "${elapsed} ${rss}"
+}
+
+report() {
+    local name="$1"
+    shift
+    local total_ms=0 total_rss=0 min_ms=
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r ms rss < <(measure "$@")
+        echo "${name} run ${i}: ${ms} ms, ${rss} KB RSS"
+        total_ms=$((total_ms + ms))
+        total_rss=$((total_rss + rss))
+        if [[ -z "${min_ms}" || ${ms} -lt ${min_ms} ]]; then
+            min_ms=${ms}
+        fi
+    done
+    printf "%-8s avg %6d ms  min %6d ms  avg RSS %7d KB\n" "${name}" $((total_ms / RUNS)) "${min_ms}" $((total_rss / RUNS)) >> "${SUMMARY}"
+}
+
+SUMMARY=$(mktemp)
+trap 'rm -f "${SUMMARY}"' EXIT
+
+if [[ -f "${JAR}" ]]; then
+    report jvm java ${JAVA_OPTS:-} -jar "${JAR}"
+else
+    echo "skip jvm, ${JAR} not found" >&2
+fi
+
+# classpath yang sama dengan dan tanpa archive, supaya selisihnya murni dari CDS
+if [[ -f "${CDS_DIR}/app.jsa" ]]; then
+    report exploded java ${JAVA_OPTS:-} -cp "$(cat "${CDS_DIR}/classpath.txt")" "${MAIN_CLASS}"
+    report cds java ${JAVA_OPTS:-} -XX:SharedArchiveFile="${CDS_DIR}/app.jsa" -cp "$(cat "${CDS_DIR}/classpath.txt")" "${MAIN_CLASS}"
+else
+    echo "skip cds, ${CDS_DIR}/app.jsa not found" >&2
+fi
+
+if [[ -x "${NATIVE}" ]]; then
+    report native "${NATIVE}"
+else
+    echo "skip native, ${NATIVE} not found" >&2
+fi
+
+echo
+cat "${SUMMARY}"
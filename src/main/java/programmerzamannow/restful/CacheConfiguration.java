@@ -0,0 +1,61 @@
+package programmerzamannow.restful;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import programmerzamannow.restful.cache.InMemorySharedCache;
+import programmerzamannow.restful.cache.SharedCache;
+import programmerzamannow.restful.cache.TieredCache;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.function.UnaryOperator;
+
+@Configuration
+public class CacheConfiguration {
+
+    private int localMaxEntries;
+
+    private long localTtlMillis;
+
+    private long sharedTtlMillis;
+
+    private long leaseMillis;
+
+    public CacheConfiguration(@Value("${cache.local.max-entries:10000}") int localMaxEntries,
+                              @Value("${cache.local.ttl-ms:5000}") long localTtlMillis,
+                              @Value("${cache.shared.ttl-ms:300000}") long sharedTtlMillis,
+                              @Value("${cache.shared.lease-ms:2000}") long leaseMillis) {
+        this.localMaxEntries = localMaxEntries;
+        this.localTtlMillis = localTtlMillis;
+        this.sharedTtlMillis = sharedTtlMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    // implementasi lain (misal Redis) cukup didaftarkan sebagai bean SharedCache
+    @Bean
+    @ConditionalOnMissingBean(SharedCache.class)
+    public SharedCache sharedCache() {
+        return new InMemorySharedCache();
+    }
+
+    // token -> user, contacts dan hash password tidak ikut disimpan.
+    // User dari cache hanya untuk identitas, yang mengubah user harus memuat ulang dari database
+    @Bean
+    public TieredCache<User> userTokenCache(SharedCache sharedCache, ObjectMapper objectMapper) {
+        UnaryOperator<User> copier = user -> new User(user.getUsername(), null, user.getName(),
+                user.getToken(), user.getTokenExpiredAt(), null);
+        return new TieredCache<>("user-token", User.class, sharedCache, objectMapper, copier,
+                localMaxEntries, localTtlMillis, sharedTtlMillis, leaseMillis);
+    }
+
+    // key: username:id
+    @Bean
+    public TieredCache<ContactResponse> contactCache(SharedCache sharedCache, ObjectMapper objectMapper) {
+        return new TieredCache<>("contact", ContactResponse.class, sharedCache, objectMapper, UnaryOperator.identity(),
+                localMaxEntries, localTtlMillis, sharedTtlMillis, leaseMillis);
+    }
+
+}
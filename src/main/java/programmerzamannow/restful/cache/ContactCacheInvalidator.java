@@ -0,0 +1,23 @@
+package programmerzamannow.restful.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.model.ContactResponse;
+
+@Component
+public class ContactCacheInvalidator {
+
+    private TieredCache<ContactResponse> contactCache;
+
+    public ContactCacheInvalidator(TieredCache<ContactResponse> contactCache) {
+        this.contactCache = contactCache;
+    }
+
+    // setelah commit, jadi pembaca berikutnya pasti memuat data yang baru
+    @TransactionalEventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        event.getIds().forEach(id -> contactCache.invalidate(event.getUsername() + ":" + id));
+    }
+
+}
@@ -0,0 +1,115 @@
+package programmerzamannow.restful.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// pengganti cache bersama untuk satu instance dan test, perilakunya meniru SET NX PX / GET / DEL / PUBLISH
+public class InMemorySharedCache implements SharedCache {
+
+    // setiap sekian put, entry yang sudah expired dibersihkan
+    private static final int SWEEP_EVERY_PUTS = 1024;
+
+    private final Map<String, Entry> values = new HashMap<>();
+
+    private final Map<String, Entry> leases = new HashMap<>();
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    private int puts;
+
+    @Override
+    public synchronized String get(String key) {
+        Entry entry = values.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            values.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public synchronized String tryLease(String key, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Entry current = leases.get(key);
+        if (current != null && !current.isExpired(now)) {
+            return null;
+        }
+
+        String lease = UUID.randomUUID().toString();
+        leases.put(key, new Entry(lease, now + leaseMillis));
+        return lease;
+    }
+
+    @Override
+    public synchronized boolean putIfLeased(String key, String value, long ttlMillis, String lease) {
+        long now = System.currentTimeMillis();
+        Entry current = leases.get(key);
+        if (current == null || current.isExpired(now) || !current.value.equals(lease)) {
+            return false;
+        }
+
+        leases.remove(key);
+        values.put(key, new Entry(value, now + ttlMillis));
+        if (++puts % SWEEP_EVERY_PUTS == 0) {
+            values.values().removeIf(entry -> entry.isExpired(now));
+            leases.values().removeIf(entry -> entry.isExpired(now));
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void releaseLease(String key, String lease) {
+        Entry current = leases.get(key);
+        if (current != null && current.value.equals(lease)) {
+            leases.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void delete(String key) {
+        values.remove(key);
+        leases.remove(key);
+    }
+
+    @Override
+    public synchronized void deleteByPrefix(String prefix) {
+        values.keySet().removeIf(key -> key.startsWith(prefix));
+        leases.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        listeners.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    private static class Entry {
+
+        private final String value;
+
+        private final long expiresAt;
+
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package programmerzamannow.restful.cache;
+
+import java.util.function.Consumer;
+
+// cache bersama antar instance (L2), misalnya Redis atau memcached.
+// Nilai disimpan sebagai string JSON supaya tidak ada object yang dipakai bersama antar thread
+public interface SharedCache {
+
+    String get(String key);
+
+    // lease mencegah stampede: hanya pemegang lease yang memuat dari database, kembalian null kalau lease dipegang pihak lain
+    String tryLease(String key, long leaseMillis);
+
+    // nilai hanya disimpan kalau lease masih berlaku, delete di tengah jalan membatalkan lease sehingga nilai basi tidak masuk
+    boolean putIfLeased(String key, String value, long ttlMillis, String lease);
+
+    void releaseLease(String key, String lease);
+
+    void delete(String key);
+
+    void deleteByPrefix(String prefix);
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+}
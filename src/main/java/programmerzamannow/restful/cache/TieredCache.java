@@ -0,0 +1,222 @@
+package programmerzamannow.restful.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// cache dua tingkat: L1 di memory JVM ini (TTL pendek) dan L2 bersama antar instance.
+// Invalidasi menghapus L2 lalu disiarkan ke semua instance untuk menghapus L1,
+// kalau pesan siaran hilang, L1 tetap basi paling lama selama TTL lokal
+public class TieredCache<V> {
+
+    private static final long LEASE_POLL_MILLIS = 5;
+
+    private static final String CLEAR_MESSAGE = "clear";
+
+    private static final String INVALIDATE_PREFIX = "invalidate:";
+
+    private final String name;
+
+    private final Class<V> type;
+
+    private final SharedCache sharedCache;
+
+    private final ObjectMapper objectMapper;
+
+    // dipakai untuk value yang mutable (misal entity), supaya tiap pemanggil dapat object sendiri
+    private final UnaryOperator<V> copier;
+
+    private final long localTtlMillis;
+
+    private final long sharedTtlMillis;
+
+    private final long leaseMillis;
+
+    private final LinkedHashMap<String, LocalEntry<V>> local;
+
+    private final SingleFlight<String, V> inFlight = new SingleFlight<>();
+
+    public TieredCache(String name, Class<V> type, SharedCache sharedCache, ObjectMapper objectMapper,
+                       UnaryOperator<V> copier, int localMaxEntries, long localTtlMillis,
+                       long sharedTtlMillis, long leaseMillis) {
+        this.name = name;
+        this.type = type;
+        this.sharedCache = sharedCache;
+        this.objectMapper = objectMapper;
+        this.copier = copier;
+        this.localTtlMillis = localTtlMillis;
+        this.sharedTtlMillis = sharedTtlMillis;
+        this.leaseMillis = leaseMillis;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry<V>> eldest) {
+                return size() > localMaxEntries;
+            }
+        };
+
+        sharedCache.subscribe(channel(), this::onInvalidation);
+    }
+
+    // loader boleh mengembalikan null (data tidak ada), null tidak disimpan di cache
+    public V get(String key, Supplier<V> loader) {
+        V value = getLocal(key);
+        if (value == null) {
+            // request yang sama dari banyak thread di instance ini cukup menunggu satu pemuatan
+            value = inFlight.execute(key, () -> load(key, loader));
+        }
+        return value != null ? copier.apply(value) : null;
+    }
+
+    private V load(String key, Supplier<V> loader) {
+        String sharedKey = sharedKey(key);
+        long deadline = System.currentTimeMillis() + leaseMillis;
+        while (true) {
+            String json = sharedCache.get(sharedKey);
+            if (json != null) {
+                V value = read(json);
+                putLocal(key, value);
+                return value;
+            }
+
+            String lease = sharedCache.tryLease(sharedKey, leaseMillis);
+            if (lease != null) {
+                try {
+                    V value = loader.get();
+                    if (value == null) {
+                        return null;
+                    }
+
+                    // yang disimpan dan dibagikan ke pemanggil lain adalah salinan, bukan object milik loader
+                    V cached = copier.apply(value);
+                    if (sharedCache.putIfLeased(sharedKey, write(cached), sharedTtlMillis, lease)) {
+                        putLocal(key, cached);
+                    }
+                    return cached;
+                } finally {
+                    sharedCache.releaseLease(sharedKey, lease);
+                }
+            }
+
+            // instance lain sedang memuat key yang sama, tunggu hasilnya di L2
+            if (System.currentTimeMillis() >= deadline) {
+                return loader.get();
+            }
+            try {
+                Thread.sleep(LEASE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loader.get();
+            }
+        }
+    }
+
+    public void invalidate(String key) {
+        removeLocal(key);
+        sharedCache.delete(sharedKey(key));
+        sharedCache.publish(channel(), INVALIDATE_PREFIX + key);
+    }
+
+    // dipanggil di dalam transaksi, invalidasi baru dijalankan setelah commit supaya
+    // pembaca lain tidak memuat ulang data lama yang belum ter-commit ke cache
+    public void invalidateAfterCommit(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(key);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(key);
+            }
+        });
+    }
+
+    public void clear() {
+        synchronized (local) {
+            local.clear();
+        }
+        sharedCache.deleteByPrefix(name + ":");
+        sharedCache.publish(channel(), CLEAR_MESSAGE);
+    }
+
+    private void onInvalidation(String message) {
+        if (message.startsWith(INVALIDATE_PREFIX)) {
+            removeLocal(message.substring(INVALIDATE_PREFIX.length()));
+        } else if (CLEAR_MESSAGE.equals(message)) {
+            synchronized (local) {
+                local.clear();
+            }
+        }
+    }
+
+    private V getLocal(String key) {
+        synchronized (local) {
+            LocalEntry<V> entry = local.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= entry.expiresAt) {
+                local.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void putLocal(String key, V value) {
+        synchronized (local) {
+            local.put(key, new LocalEntry<>(value, System.currentTimeMillis() + localTtlMillis));
+        }
+    }
+
+    private void removeLocal(String key) {
+        synchronized (local) {
+            local.remove(key);
+        }
+    }
+
+    private String sharedKey(String key) {
+        return name + ":" + key;
+    }
+
+    private String channel() {
+        return "cache-invalidation:" + name;
+    }
+
+    private V read(String json) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read " + name + " cache entry", e);
+        }
+    }
+
+    private String write(V value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write " + name + " cache entry", e);
+        }
+    }
+
+    private static class LocalEntry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private LocalEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
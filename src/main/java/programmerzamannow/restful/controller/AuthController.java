@@ -4,20 +4,30 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.BatchLoginRequest;
+import programmerzamannow.restful.model.BatchLoginResponse;
 import programmerzamannow.restful.model.LoginUserRequest;
 import programmerzamannow.restful.model.TokenResponse;
 import programmerzamannow.restful.model.WebResponse;
+import programmerzamannow.restful.resolver.InternalTokenVerifier;
 import programmerzamannow.restful.service.AuthService;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
 @RestController
 public class AuthController {
 
     private AuthService authService;
 
-    public AuthController(AuthService authService) {
+    private InternalTokenVerifier internalTokenVerifier;
+
+    public AuthController(AuthService authService, InternalTokenVerifier internalTokenVerifier) {
         this.authService = authService;
+        this.internalTokenVerifier = internalTokenVerifier;
     }
 
     @PostMapping(
@@ -26,13 +36,26 @@ public class AuthController {
             produces = MediaType.APPLICATION_JSON_VALUE
     )
 
-    public WebResponse<TokenResponse> login(@RequestBody LoginUserRequest request){
-        TokenResponse tokenResponse = authService.login(request);
+    public WebResponse<TokenResponse> login(@RequestBody LoginUserRequest request, HttpServletRequest servletRequest){
+        TokenResponse tokenResponse = authService.login(request, servletRequest.getRemoteAddr());
         return WebResponse.<TokenResponse>builder()
                 .data(tokenResponse)
                 .build();
     }
 
+    @PostMapping(
+            path = "/api/auth/login/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<BatchLoginResponse>> loginBatch(@RequestHeader(name = "X-Internal-Token", required = false) String token,
+                                                            @RequestBody BatchLoginRequest request){
+        internalTokenVerifier.verify(token);
+
+        List<BatchLoginResponse> responses = authService.loginBatch(request);
+        return WebResponse.<List<BatchLoginResponse>>builder().data(responses).build();
+    }
+
     @DeleteMapping(
             path = "/api/auth/logout",
             produces = MediaType.APPLICATION_JSON_VALUE
@@ -2,21 +2,40 @@ package programmerzamannow.restful.controller;
 
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.BatchContactResponse;
+import programmerzamannow.restful.model.BatchGetContactRequest;
+import programmerzamannow.restful.model.BulkContactResponse;
+import programmerzamannow.restful.model.BulkDeleteContactRequest;
+import programmerzamannow.restful.model.BulkUpdateContactRequest;
+import programmerzamannow.restful.model.ContactDuplicateResponse;
 import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.model.ContactSyncResponse;
 import programmerzamannow.restful.model.CreateContactRequest;
+import programmerzamannow.restful.model.DeleteContactByFilterRequest;
+import programmerzamannow.restful.model.LookupContactRequest;
+import programmerzamannow.restful.model.ContactSuggestionResponse;
+import programmerzamannow.restful.model.SearchContactRequest;
+import programmerzamannow.restful.model.SuggestContactRequest;
+import programmerzamannow.restful.model.SyncContactRequest;
 import programmerzamannow.restful.model.UpdateContactRequest;
 import programmerzamannow.restful.model.WebResponse;
 import programmerzamannow.restful.service.ContactService;
+import programmerzamannow.restful.stream.ContactStreamHub;
+
+import java.util.List;
 
 @RestController
 public class ContactController {
 
     private ContactService contactService;
 
+    private ContactStreamHub contactStreamHub;
 
-    public ContactController(ContactService contactService) {
+    public ContactController(ContactService contactService, ContactStreamHub contactStreamHub) {
         this.contactService = contactService;
+        this.contactStreamHub = contactStreamHub;
     }
 
     @PostMapping(
@@ -29,6 +48,97 @@ public class ContactController {
         return WebResponse.<ContactResponse>builder().data(contactResponse).build();
     }
 
+    @GetMapping(
+            path = "/api/contacts/stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    public SseEmitter stream(User user) {
+        return contactStreamHub.subscribe(user);
+    }
+
+    @GetMapping(
+            path = "/api/contacts/search",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<ContactResponse>> search(
+            User user,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size
+    ) {
+        SearchContactRequest request = SearchContactRequest.builder()
+                .query(query)
+                .size(size)
+                .build();
+
+        List<ContactResponse> contactResponses = contactService.search(user, request);
+        return WebResponse.<List<ContactResponse>>builder().data(contactResponses).build();
+    }
+
+    @GetMapping(
+            path = "/api/contacts/suggest",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<ContactSuggestionResponse>> suggest(
+            User user,
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size
+    ) {
+        SuggestContactRequest request = SuggestContactRequest.builder()
+                .query(query)
+                .size(size)
+                .build();
+
+        List<ContactSuggestionResponse> suggestions = contactService.suggest(user, request);
+        return WebResponse.<List<ContactSuggestionResponse>>builder().data(suggestions).build();
+    }
+
+    @GetMapping(
+            path = "/api/contacts/duplicates",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<ContactDuplicateResponse>> duplicates(User user) {
+        List<ContactDuplicateResponse> duplicates = contactService.findDuplicates(user);
+        return WebResponse.<List<ContactDuplicateResponse>>builder().data(duplicates).build();
+    }
+
+    @GetMapping(
+            path = "/api/contacts/lookup",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<ContactResponse>> lookup(
+            User user,
+            @RequestParam(value = "phone", required = false) String phone,
+            @RequestParam(value = "email", required = false) String email
+    ) {
+        LookupContactRequest request = LookupContactRequest.builder()
+                .phone(phone)
+                .email(email)
+                .build();
+
+        List<ContactResponse> contactResponses = contactService.lookup(user, request);
+        return WebResponse.<List<ContactResponse>>builder().data(contactResponses).build();
+    }
+
+    @GetMapping(
+            path = "/api/contacts/sync",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<ContactSyncResponse> sync(
+            User user,
+            @RequestParam(value = "since", required = false, defaultValue = "0") Long since,
+            @RequestParam(value = "sinceId", required = false, defaultValue = "") String sinceId,
+            @RequestParam(value = "size", required = false, defaultValue = "100") Integer size
+    ) {
+        SyncContactRequest request = SyncContactRequest.builder()
+                .since(since)
+                .sinceId(sinceId)
+                .size(size)
+                .build();
+
+        ContactSyncResponse syncResponse = contactService.sync(user, request);
+        return WebResponse.<ContactSyncResponse>builder().data(syncResponse).build();
+    }
+
     @GetMapping(
             path = "/api/contacts/{idContact}",
             produces = MediaType.APPLICATION_JSON_VALUE
@@ -38,6 +148,16 @@ public class ContactController {
         return WebResponse.<ContactResponse>builder().data(contactResponse).build();
     }
 
+    @PostMapping(
+            path = "/api/contacts/batch-get",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<BatchContactResponse> getAll(User user, @RequestBody BatchGetContactRequest request) {
+        BatchContactResponse batchResponse = contactService.getAll(user, request);
+        return WebResponse.<BatchContactResponse>builder().data(batchResponse).build();
+    }
+
     @PutMapping(
             path = "/api/contacts/{idContact}",
             produces = MediaType.APPLICATION_JSON_VALUE,
@@ -64,4 +184,34 @@ public class ContactController {
         return WebResponse.<String>builder().data("OK").build();
     }
 
+    @PatchMapping(
+            path = "/api/contacts/bulk",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<BulkContactResponse> bulkUpdate(User user, @RequestBody BulkUpdateContactRequest request) {
+        BulkContactResponse bulkResponse = contactService.bulkUpdate(user, request);
+        return WebResponse.<BulkContactResponse>builder().data(bulkResponse).build();
+    }
+
+    @PostMapping(
+            path = "/api/contacts/bulk-delete",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<BulkContactResponse> bulkDelete(User user, @RequestBody BulkDeleteContactRequest request) {
+        BulkContactResponse bulkResponse = contactService.bulkDelete(user, request);
+        return WebResponse.<BulkContactResponse>builder().data(bulkResponse).build();
+    }
+
+    @PostMapping(
+            path = "/api/contacts/bulk-delete-by-filter",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<BulkContactResponse> deleteByFilter(User user, @RequestBody DeleteContactByFilterRequest request) {
+        BulkContactResponse bulkResponse = contactService.deleteByFilter(user, request);
+        return WebResponse.<BulkContactResponse>builder().data(bulkResponse).build();
+    }
+
 }
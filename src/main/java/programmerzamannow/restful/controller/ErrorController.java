@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.exception.ApiException;
 import programmerzamannow.restful.model.WebResponse;
 
 import javax.validation.ConstraintViolation;
@@ -19,6 +20,12 @@ public class ErrorController {
                 .body(WebResponse.<String>builder().errors(exception.getMessage()).build());
     }
 
+    // response sudah disiapkan saat error dibuat
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<WebResponse<String>> apiException(ApiException exception){
+        return exception.getResponse();
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<WebResponse<String>> ResponseStatusException(ResponseStatusException exception){
         return ResponseEntity.status(exception.getStatus())
@@ -0,0 +1,37 @@
+package programmerzamannow.restful.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import programmerzamannow.restful.outbox.OutboxRelay;
+import programmerzamannow.restful.resolver.InternalTokenVerifier;
+
+@RestController
+public class OutboxController {
+
+    private OutboxRelay outboxRelay;
+
+    private InternalTokenVerifier internalTokenVerifier;
+
+    public OutboxController(OutboxRelay outboxRelay, InternalTokenVerifier internalTokenVerifier) {
+        this.outboxRelay = outboxRelay;
+        this.internalTokenVerifier = internalTokenVerifier;
+    }
+
+    @GetMapping(
+            path = "/api/events/stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    public SseEmitter stream(@RequestHeader(name = "X-Internal-Token", required = false) String token,
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                             @RequestParam(name = "after", required = false) Long after) {
+        internalTokenVerifier.verify(token);
+
+        // EventSource mengirim Last-Event-ID sendiri saat reconnect
+        return outboxRelay.subscribe(after != null ? after : lastEventId);
+    }
+
+}
@@ -25,8 +25,25 @@ public class Contact {
 
     private String email;
 
+    @Column(name = "phone_normalized")
+    private String phoneNormalized;
+
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    @Column(name = "updated_at")
+    private Long updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "username", referencedColumnName = "username")
     private User user;
 
+    // kolom updated_at NOT NULL, contact yang disimpan tanpa updatedAt tetap masuk ke sync
+    @PrePersist
+    void prePersist() {
+        if (updatedAt == null) {
+            updatedAt = System.currentTimeMillis();
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package programmerzamannow.restful.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "contact_tombstones")
+public class ContactTombstone {
+
+    @Id
+    private String id;
+
+    @Column(name = "deleted_at")
+    private Long deletedAt;
+
+    @ManyToOne
+    @JoinColumn(name = "username", referencedColumnName = "username")
+    private User user;
+
+}
@@ -0,0 +1,36 @@
+package programmerzamannow.restful.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type")
+    private String aggregateType;
+
+    @Column(name = "event_type")
+    private String eventType;
+
+    private String username;
+
+    private String payload;
+
+    @Column(name = "created_at")
+    private Long createdAt;
+
+    // null sampai relay memberi posisi setelah commit
+    @Column(name = "stream_position")
+    private Long streamPosition;
+
+}
@@ -0,0 +1,31 @@
+package programmerzamannow.restful.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ContactChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private String username;
+
+    private Type type;
+
+    // id yang terdampak, untuk DELETED bisa berisi id yang sebenarnya tidak ada
+    private List<String> ids;
+
+    // isi contact terbaru, hanya untuk CREATED dan UPDATED
+    private List<ContactResponse> contacts;
+
+}
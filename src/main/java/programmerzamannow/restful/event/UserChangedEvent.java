@@ -0,0 +1,27 @@
+package programmerzamannow.restful.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserChangedEvent {
+
+    public enum Type {
+        REGISTERED, UPDATED
+    }
+
+    private String username;
+
+    private Type type;
+
+    private String name;
+
+    // hanya penanda, hash password tidak pernah ikut dikirim
+    private boolean passwordChanged;
+
+}
@@ -0,0 +1,19 @@
+package programmerzamannow.restful.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserLoggedOutEvent {
+
+    private String username;
+
+    // token yang dicabut, stream yang dibuka dengan token lain milik user yang sama tidak ikut ditutup
+    private String token;
+
+}
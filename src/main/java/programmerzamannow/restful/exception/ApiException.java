@@ -0,0 +1,30 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import programmerzamannow.restful.model.WebResponse;
+
+// error yang memang bagian dari alur normal (password salah, contact tidak ada, token expired).
+// Dibuat sekali sebagai konstanta tanpa stack trace, dan body response-nya sudah disiapkan,
+// jadi melempar error ini semurah return biasa
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final ResponseEntity<WebResponse<String>> response;
+
+    protected ApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.response = ResponseEntity.status(status).body(WebResponse.<String>builder().errors(message).build());
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public ResponseEntity<WebResponse<String>> getResponse() {
+        return response;
+    }
+
+}
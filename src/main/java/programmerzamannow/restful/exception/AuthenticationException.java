@@ -0,0 +1,20 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 401, token atau kredensial tidak valid
+public class AuthenticationException extends ApiException {
+
+    public static final AuthenticationException LOGIN_REQUIRED = new AuthenticationException("Silahkan login terlebih dahulu");
+
+    public static final AuthenticationException TOKEN_EXPIRED = new AuthenticationException("Token expired");
+
+    public static final AuthenticationException WRONG_CREDENTIALS = new AuthenticationException("Username or Password wrong");
+
+    public static final AuthenticationException INTERNAL_TOKEN_INVALID = new AuthenticationException("Internal token invalid");
+
+    private AuthenticationException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message);
+    }
+
+}
@@ -0,0 +1,20 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 400, request valid secara format tapi tidak bisa diproses
+public class InvalidRequestException extends ApiException {
+
+    public static final InvalidRequestException USERNAME_ALREADY_REGISTERED = new InvalidRequestException("Username already registered");
+
+    public static final InvalidRequestException PHONE_OR_EMAIL_REQUIRED = new InvalidRequestException("Either phone or email is required");
+
+    public static final InvalidRequestException NO_FIELD_TO_UPDATE = new InvalidRequestException("No field to update");
+
+    public static final InvalidRequestException FILTER_REQUIRED = new InvalidRequestException("At least one filter is required");
+
+    private InvalidRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+
+}
@@ -0,0 +1,14 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 404, data tidak ditemukan atau bukan milik user
+public class NotFoundException extends ApiException {
+
+    public static final NotFoundException CONTACT_NOT_FOUND = new NotFoundException("Contact not found");
+
+    private NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+
+}
@@ -0,0 +1,11 @@
+package programmerzamannow.restful.exception;
+
+// dilempar QueryBudgetFilter setelah response selesai jika query-budget.fail-on-violation aktif (dipakai di test),
+// bukan error untuk client jadi tidak turunan ApiException
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+
+}
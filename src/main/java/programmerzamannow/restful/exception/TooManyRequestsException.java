@@ -0,0 +1,16 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 429, batas pemakaian per user terlampaui
+public class TooManyRequestsException extends ApiException {
+
+    public static final TooManyRequestsException TOO_MANY_STREAMS = new TooManyRequestsException("Too many open contact streams");
+
+    public static final TooManyRequestsException LOGIN_THROTTLED = new TooManyRequestsException("Too many login attempts, please retry later");
+
+    private TooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+
+}
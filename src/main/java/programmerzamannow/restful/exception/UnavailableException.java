@@ -0,0 +1,20 @@
+package programmerzamannow.restful.exception;
+
+import org.springframework.http.HttpStatus;
+
+// 503, komponen pendukung sedang tidak tersedia
+public class UnavailableException extends ApiException {
+
+    public static final UnavailableException JOURNAL_UNAVAILABLE = new UnavailableException("Contact write journal unavailable");
+
+    public static final UnavailableException FLUSH_INTERRUPTED = new UnavailableException("Interrupted while flushing contacts");
+
+    public static final UnavailableException FLUSH_TIMEOUT = new UnavailableException("Timed out waiting for pending contact writes");
+
+    public static final UnavailableException EVENT_RELAY_DISABLED = new UnavailableException("Event relay disabled");
+
+    private UnavailableException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+
+}
@@ -0,0 +1,106 @@
+package programmerzamannow.restful.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import programmerzamannow.restful.exception.QueryBudgetExceededException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// jumlah dan total durasi statement per request, dengan tag pola endpoint. Request yang melebihi max-statements
+// atau mengeksekusi sql yang sama berulang kali (N+1) dicatat sebagai pelanggaran. Di test fail-on-violation
+// diaktifkan supaya pelanggaran membuat test gagal, di production cukup log dan metric
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private QueryInspector queryInspector;
+
+    private MeterRegistry meterRegistry;
+
+    private int maxStatements;
+
+    private boolean failOnViolation;
+
+    public QueryBudgetFilter(QueryInspector queryInspector,
+                             MeterRegistry meterRegistry,
+                             @Value("${query-budget.max-statements:20}") int maxStatements,
+                             @Value("${query-budget.fail-on-violation:false}") boolean failOnViolation) {
+        this.queryInspector = queryInspector;
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !queryInspector.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = queryInspector.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryInspector.end();
+        }
+
+        // tidak di finally, supaya exception dari request tidak tertutup oleh pelanggaran budget
+        List<String> violations = inspect(request, stats);
+        if (failOnViolation && !violations.isEmpty()) {
+            throw new QueryBudgetExceededException(request.getMethod() + " " + request.getRequestURI() + ": "
+                    + String.join("; ", violations));
+        }
+    }
+
+    private List<String> inspect(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+
+        DistributionSummary.builder("jdbc.statements.per.request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("jdbc.statements.time.per.request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        List<String> violations = new ArrayList<>();
+        for (QueryStats.Repeated repeated : stats.getRepeated()) {
+            log.warn("Possible N+1 in {} from {}: {} executions of {}",
+                    endpoint, repeated.getOrigin(), repeated.getCount(), repeated.getSql());
+            queryInspector.increment("jdbc.statements.repeated", repeated.getOrigin());
+            violations.add(repeated.getCount() + "x " + repeated.getSql() + " from " + repeated.getOrigin());
+        }
+
+        if (maxStatements > 0 && stats.getStatements() > maxStatements) {
+            log.warn("{} executed {} statements, budget is {}", endpoint, stats.getStatements(), maxStatements);
+            Counter.builder("jdbc.query.budget.exceeded")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            violations.add(stats.getStatements() + " statements, budget is " + maxStatements);
+        }
+        return violations;
+    }
+
+}
@@ -0,0 +1,113 @@
+package programmerzamannow.restful.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// mencatat statement per request (dibuka dan ditutup QueryBudgetFilter) dan statement lambat di thread mana pun.
+// Asal statement (method service yang memanggil repository) dicari dengan StackWalker, hanya untuk statement lambat
+// dan sql yang baru mencapai threshold N+1, jadi statement biasa cukup menambah counter
+@Slf4j
+@Component
+public class QueryInspector implements StatementListener {
+
+    private static final String APPLICATION_PACKAGE = "programmerzamannow.restful.";
+
+    private static final String SERVICE_PACKAGE = APPLICATION_PACKAGE + "service.";
+
+    private static final String JDBC_PACKAGE = APPLICATION_PACKAGE + "jdbc.";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ThreadLocal<QueryStats> current = new ThreadLocal<>();
+
+    // MeterRegistry diambil saat pertama dipakai, DataSource (dan listener ini) dibuat lebih dulu daripada registry
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private boolean enabled;
+
+    private int repeatedThreshold;
+
+    private long slowThresholdNanos;
+
+    public QueryInspector(ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${query-budget.enabled:true}") boolean enabled,
+                          @Value("${query-budget.repeated-statement-threshold:5}") int repeatedThreshold,
+                          @Value("${query-budget.slow-statement-ms:100}") long slowThresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.repeatedThreshold = repeatedThreshold;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        current.set(stats);
+        return stats;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            String origin = origin();
+            log.warn("Slow statement from {} took {} ms: {}", origin, elapsedNanos / 1_000_000, sql);
+            increment("jdbc.statements.slow", origin);
+        }
+
+        QueryStats stats = current.get();
+        if (stats != null && stats.record(sql, elapsedNanos, repeatedThreshold)) {
+            stats.markOrigin(sql, origin());
+        }
+    }
+
+    void increment(String name, String origin) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Counter.builder(name).tag("origin", origin).register(registry).increment();
+        }
+    }
+
+    // method service pertama di stack, atau class aplikasi pertama di luar package jdbc (misal runner / scheduler)
+    static String origin() {
+        return STACK_WALKER.walk(frames -> {
+            Optional<StackWalker.StackFrame> application = Optional.empty();
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(APPLICATION_PACKAGE) || className.startsWith(JDBC_PACKAGE)
+                        || className.contains("$$")) {
+                    continue;
+                }
+                if (className.startsWith(SERVICE_PACKAGE)) {
+                    return describe(frame);
+                }
+                if (application.isEmpty()) {
+                    application = Optional.of(frame);
+                }
+            }
+            return application.map(QueryInspector::describe).orElse("unknown");
+        });
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+}
@@ -0,0 +1,76 @@
+package programmerzamannow.restful.jdbc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// statement yang dieksekusi dalam satu request, hanya dipakai oleh thread request tersebut
+public class QueryStats {
+
+    private int statements;
+
+    private long elapsedNanos;
+
+    private final Map<String, Repeated> bySql = new HashMap<>();
+
+    private final List<Repeated> repeated = new ArrayList<>();
+
+    // true saat sql ini pertama kali mencapai threshold, supaya stack trace hanya diambil sekali per sql
+    boolean record(String sql, long nanos, int repeatedThreshold) {
+        statements++;
+        elapsedNanos += nanos;
+
+        Repeated entry = bySql.computeIfAbsent(sql, Repeated::new);
+        entry.count++;
+        if (entry.count == repeatedThreshold) {
+            repeated.add(entry);
+            return true;
+        }
+        return false;
+    }
+
+    void markOrigin(String sql, String origin) {
+        bySql.get(sql).origin = origin;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // kandidat N+1: sql yang sama dieksekusi berulang kali dalam satu request
+    public List<Repeated> getRepeated() {
+        return repeated;
+    }
+
+    public static class Repeated {
+
+        private final String sql;
+
+        private int count;
+
+        private String origin;
+
+        private Repeated(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+    }
+
+}
@@ -0,0 +1,8 @@
+package programmerzamannow.restful.jdbc;
+
+// dipanggil TimedDataSource setelah setiap statement dieksekusi, di thread yang sama dengan request
+public interface StatementListener {
+
+    void afterExecute(String sql, long elapsedNanos, boolean failed);
+
+}
@@ -0,0 +1,141 @@
+package programmerzamannow.restful.jdbc;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// membungkus DataSource (Hikari) supaya setiap eksekusi statement diukur waktunya lalu diteruskan ke StatementListener.
+// Hanya method execute* yang diukur, method lain langsung diteruskan ke connection / statement aslinya
+public class TimedDataSource extends DelegatingDataSource {
+
+    private final StatementListener[] listeners;
+
+    public TimedDataSource(DataSource target, List<StatementListener> listeners) {
+        super(target);
+        this.listeners = listeners.toArray(new StatementListener[0]);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        if (listeners.length == 0) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new ConnectionHandler(connection));
+    }
+
+    private void afterExecute(String sql, long elapsedNanos, boolean failed) {
+        for (StatementListener listener : listeners) {
+            listener.afterExecute(sql, elapsedNanos, failed);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getTargetConnection":
+                    return target;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Timed[" + target + "]";
+                default:
+                    break;
+            }
+
+            Object result = TimedDataSource.invoke(target, method, args);
+            if (result instanceof Statement) {
+                // sql prepared statement diketahui saat prepare, statement biasa saat execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return wrap((Statement) result, sql);
+            }
+            return result;
+        }
+
+        private Statement wrap(Statement statement, String sql) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        private final String sql;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!name.startsWith("execute")) {
+                return TimedDataSource.invoke(target, method, args);
+            }
+
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = TimedDataSource.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                afterExecute(executed != null ? executed : "batch", System.nanoTime() - start, failed);
+            }
+        }
+
+    }
+
+}
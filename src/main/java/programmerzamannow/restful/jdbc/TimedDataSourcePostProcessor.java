@@ -0,0 +1,31 @@
+package programmerzamannow.restful.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// DataSource dari auto-configuration dibungkus TimedDataSource, isWrapperFor / unwrap tetap sampai ke Hikari
+@Component
+public class TimedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private ObjectProvider<StatementListener> listeners;
+
+    public TimedDataSourcePostProcessor(ObjectProvider<StatementListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof TimedDataSource) {
+            return bean;
+        }
+
+        List<StatementListener> statementListeners = listeners.orderedStream().collect(Collectors.toList());
+        return statementListeners.isEmpty() ? bean : new TimedDataSource((DataSource) bean, statementListeners);
+    }
+
+}
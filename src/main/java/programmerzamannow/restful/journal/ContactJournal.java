@@ -0,0 +1,282 @@
+package programmerzamannow.restful.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// journal append-only untuk contact yang belum ditulis ke database.
+// Data ditulis ke segment yang di-mmap dan diganti segment baru saat penuh,
+// satu frame berisi [panjang payload][crc32][sequence][payload] dan fsync dibagi oleh semua thread yang menunggu (group commit).
+public class ContactJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "contacts-";
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private static final String CHECKPOINT_FILE = "contacts.checkpoint";
+
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final Object syncLock = new Object();
+
+    private Segment active;
+
+    // total byte yang pernah ditulis, tidak ikut reset saat segment diganti
+    private volatile long writtenBytes;
+
+    private long durableBytes;
+
+    private boolean syncing;
+
+    private long lastWrittenSequence;
+
+    private long appliedSequence;
+
+    private List<byte[]> recovered;
+
+    public ContactJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        this.appliedSequence = readCheckpoint();
+        this.lastWrittenSequence = appliedSequence;
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // nama file berisi sequence pertama dengan panjang tetap, jadi urutan nama sama dengan urutan tulis
+        files.sort(null);
+        for (Path file : files) {
+            segments.add(Segment.open(file, segmentBytes));
+        }
+
+        this.recovered = recover();
+    }
+
+    // payload yang ada di journal tapi belum tercatat sudah diterapkan ke database, hanya tersedia sekali saat start
+    public synchronized List<byte[]> readPending() {
+        List<byte[]> payloads = recovered;
+        recovered = new ArrayList<>();
+        return payloads;
+    }
+
+    // scan semua segment, frame yang crc-nya tidak cocok dianggap tulisan yang terpotong saat crash
+    private List<byte[]> recover() {
+        List<byte[]> payloads = new ArrayList<>();
+        CRC32 crc = new CRC32();
+
+        for (Segment segment : segments) {
+            MappedByteBuffer buffer = segment.buffer;
+            int position = 0;
+
+            while (position + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                buffer.position(position + HEADER_BYTES);
+                buffer.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                    break;
+                }
+
+                long sequence = buffer.getLong(position + Integer.BYTES * 2);
+                if (sequence > appliedSequence) {
+                    payloads.add(payload);
+                }
+                segment.lastSequence = sequence;
+                lastWrittenSequence = Math.max(lastWrittenSequence, sequence);
+                position += HEADER_BYTES + length;
+            }
+
+            segment.position = position;
+        }
+
+        if (!segments.isEmpty()) {
+            active = segments.get(segments.size() - 1);
+            // sisa segment terakhir setelah frame valid dikosongkan, supaya frame lama yang belum di-ack tidak terbaca lagi
+            for (int i = active.position; i < active.buffer.capacity(); i++) {
+                active.buffer.put(i, (byte) 0);
+            }
+        }
+
+        return payloads;
+    }
+
+    public synchronized long lastSequence() {
+        return lastWrittenSequence;
+    }
+
+    // menulis frame tanpa fsync, kembalian adalah posisi yang harus durable sebelum request di-ack
+    public synchronized long write(long sequence, byte[] payload) throws IOException {
+        int frameBytes = HEADER_BYTES + payload.length;
+        if (frameBytes > segmentBytes) {
+            throw new IOException("Journal record of " + frameBytes + " bytes does not fit in a segment");
+        }
+
+        if (active == null || active.position + frameBytes > active.buffer.capacity()) {
+            rotate(sequence);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.position;
+        buffer.position(position + HEADER_BYTES);
+        buffer.put(payload);
+        buffer.putLong(position + Integer.BYTES * 2, sequence);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // panjang ditulis paling akhir, frame baru dianggap ada setelah panjangnya terisi
+        buffer.putInt(position, payload.length);
+
+        active.position += frameBytes;
+        active.lastSequence = sequence;
+        lastWrittenSequence = sequence;
+        writtenBytes += frameBytes;
+        return writtenBytes;
+    }
+
+    // thread pertama yang masuk melakukan fsync untuk semua frame yang sudah ditulis, sisanya cukup menunggu
+    public void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            while (durableBytes < position) {
+                if (syncing) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for journal sync", e);
+                    }
+                    continue;
+                }
+
+                syncing = true;
+                long target;
+                Segment segment;
+                synchronized (this) {
+                    target = writtenBytes;
+                    segment = active;
+                }
+                try {
+                    if (segment != null) {
+                        segment.buffer.force();
+                    }
+                    durableBytes = Math.max(durableBytes, target);
+                } finally {
+                    syncing = false;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    // catat sequence yang sudah masuk database lalu hapus segment lama yang isinya sudah diterapkan semua
+    public synchronized void markApplied(long sequence) throws IOException {
+        if (sequence <= appliedSequence) {
+            return;
+        }
+        appliedSequence = sequence;
+        writeCheckpoint(sequence);
+
+        while (segments.size() > 1 && segments.get(0).lastSequence <= appliedSequence) {
+            Segment segment = segments.remove(0);
+            segment.close();
+            Files.deleteIfExists(segment.file);
+        }
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        if (active != null) {
+            // segment lama harus durable sebelum ditinggal, sync berikutnya hanya memaksa segment aktif
+            active.buffer.force();
+        }
+
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        active = Segment.open(file, segmentBytes);
+        segments.add(active);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        return Long.parseLong(new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim());
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, Long.toString(sequence).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static class Segment {
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private int position;
+
+        private long lastSequence;
+
+        private Segment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path file, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(segmentBytes, channel.size());
+            return new Segment(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+}
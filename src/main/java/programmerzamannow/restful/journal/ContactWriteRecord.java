@@ -0,0 +1,36 @@
+package programmerzamannow.restful.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ContactWriteRecord {
+
+    public enum Operation {
+        CREATE, UPDATE
+    }
+
+    private Long sequence;
+
+    private Operation operation;
+
+    private String username;
+
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private String phone;
+
+    private Long updatedAt;
+
+}
@@ -0,0 +1,109 @@
+package programmerzamannow.restful.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// batas jumlah request bersamaan yang menyesuaikan diri (AIMD).
+// Sampel dikumpulkan per window (kurang lebih satu putaran request), di akhir window:
+// - ada request gagal atau rata-rata latency window jauh di atas baseline -> limit dikali backoff
+// - sehat dan limit benar-benar terpakai -> limit naik satu
+// Baseline adalah rata-rata bergerak (EWMA) dari rata-rata per window, bukan latency tercepat,
+// jadi campuran endpoint murah dan mahal tidak dianggap overload selama komposisinya stabil
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    // bobot window terbaru di baseline, kurang lebih mengikuti 20 window terakhir.
+    // Perubahan permanen (misal data makin besar) ikut terserap sehingga tidak dianggap overload terus
+    private static final double BASELINE_SMOOTHING = 0.1;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    // 0 = belum ada window sehat
+    private double baselineLatencyNanos;
+
+    private int samples;
+
+    private long latencySumNanos;
+
+    private int windowMaxInFlight;
+
+    private boolean windowFailed;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double latencyTolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    // tidak pernah menunggu, request yang tidak dapat slot langsung ditolak
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        sample(latencyNanos, failed, current);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long latencyNanos, boolean failed, int inFlightAtRelease) {
+        samples++;
+        latencySumNanos += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+        windowFailed |= failed;
+
+        if (samples < Math.max(MIN_WINDOW_SAMPLES, (int) limit)) {
+            return;
+        }
+
+        double averageLatencyNanos = (double) latencySumNanos / samples;
+        if (baselineLatencyNanos == 0) {
+            baselineLatencyNanos = averageLatencyNanos;
+        }
+
+        if (windowFailed || averageLatencyNanos > baselineLatencyNanos * latencyTolerance) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (windowMaxInFlight * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+
+        // window dengan request gagal tidak ikut baseline, error cepat akan menurunkannya secara semu
+        if (!windowFailed) {
+            baselineLatencyNanos += BASELINE_SMOOTHING * (averageLatencyNanos - baselineLatencyNanos);
+        }
+
+        samples = 0;
+        latencySumNanos = 0;
+        windowMaxInFlight = 0;
+        windowFailed = false;
+    }
+
+}
@@ -0,0 +1,107 @@
+package programmerzamannow.restful.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import programmerzamannow.restful.model.WebResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// limit terpisah per kelompok endpoint, supaya endpoint contact yang lambat karena MySQL tidak ikut menghabiskan slot login
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String[] GROUPS = {"auth", "users", "contacts"};
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+
+    private final Map<String, Counter> rejected = new LinkedHashMap<>();
+
+    private boolean enabled;
+
+    private byte[] rejectedBody;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${limiter.enabled:true}") boolean enabled,
+                                  @Value("${limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${limiter.min-limit:4}") int minLimit,
+                                  @Value("${limiter.max-limit:200}") int maxLimit,
+                                  @Value("${limiter.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${limiter.latency-tolerance:2.0}") double latencyTolerance) throws IOException {
+        this.enabled = enabled;
+        this.rejectedBody = objectMapper.writeValueAsBytes(WebResponse.<String>builder()
+                .errors("Server is busy, please retry")
+                .build());
+
+        for (String group : GROUPS) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                    backoffRatio, latencyTolerance);
+            limiters.put(group, limiter);
+
+            Gauge.builder("http.server.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            rejected.put(group, Counter.builder("http.server.concurrency.rejected")
+                    .tag("group", group)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || groupOf(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String group = groupOf(request.getRequestURI());
+        AdaptiveConcurrencyLimiter limiter = limiters.get(group);
+
+        if (!limiter.tryAcquire()) {
+            // langsung ditolak, antrian hanya menambah latency untuk semua request
+            rejected.get(group).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(rejectedBody);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private static String groupOf(String path) {
+        for (String group : GROUPS) {
+            String prefix = "/api/" + group;
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,92 @@
+package programmerzamannow.restful.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import programmerzamannow.restful.resolver.UserArgumentResolver;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// satu baris key=value per request ke logger "access". Logger ini diarahkan ke AsyncAppender di logback-spring.xml,
+// jadi request thread hanya membuat satu String lalu memasukkannya ke antrian.
+// Dipasang paling luar supaya request yang ditolak ConcurrencyLimitFilter juga tercatat
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("access");
+
+    private boolean enabled;
+
+    public AccessLogFilter(@Value("${access-log.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !ACCESS.isInfoEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // stream SSE: status dan durasi baru final saat stream ditutup
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, start);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, long start) {
+        long elapsed = System.nanoTime() - start;
+
+        // pola endpoint (misal /api/contacts/{idContact}) lebih mudah diagregasi daripada URI asli
+        Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object user = request.getAttribute(UserArgumentResolver.USERNAME_ATTRIBUTE);
+
+        StringBuilder line = new StringBuilder(160)
+                .append("method=").append(request.getMethod())
+                .append(" endpoint=").append(endpoint != null ? endpoint : request.getRequestURI())
+                .append(" status=").append(response.getStatus())
+                .append(" user=").append(user != null ? user : "-")
+                .append(" latencyMs=");
+        LogLines.appendMillis(line, elapsed);
+
+        ACCESS.info(line.toString());
+    }
+
+}
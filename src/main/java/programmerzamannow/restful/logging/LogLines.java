@@ -0,0 +1,22 @@
+package programmerzamannow.restful.logging;
+
+final class LogLines {
+
+    private LogLines() {
+    }
+
+    // durasi dalam milidetik dengan 3 angka di belakang koma, tanpa String.format
+    static StringBuilder appendMillis(StringBuilder line, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        line.append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            line.append('0');
+        }
+        if (fraction < 10) {
+            line.append('0');
+        }
+        return line.append(fraction);
+    }
+
+}
@@ -0,0 +1,60 @@
+package programmerzamannow.restful.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import programmerzamannow.restful.jdbc.StatementListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// pengganti hibernate.show_sql: statement yang lambat selalu dicatat, sisanya hanya sampel, ke logger "sql" yang async.
+// Nilai parameter tidak ikut dicatat
+@Component
+public class SqlLogListener implements StatementListener {
+
+    private static final Logger SQL = LoggerFactory.getLogger("sql");
+
+    private static final int MAX_SQL_LENGTH = 1000;
+
+    private boolean enabled;
+
+    private double sampleRate;
+
+    private long slowThresholdNanos;
+
+    public SqlLogListener(@Value("${sql-log.enabled:true}") boolean enabled,
+                          @Value("${sql-log.sample-rate:0.01}") double sampleRate,
+                          @Value("${sql-log.slow-threshold-ms:100}") long slowThresholdMillis) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, boolean failed) {
+        if (!enabled || !SQL.isInfoEnabled()) {
+            return;
+        }
+
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && !failed && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder(64 + Math.min(sql.length(), MAX_SQL_LENGTH)).append("latencyMs=");
+        LogLines.appendMillis(line, elapsedNanos)
+                .append(" slow=").append(slow)
+                .append(" failed=").append(failed)
+                .append(" sql=\"");
+        if (sql.length() > MAX_SQL_LENGTH) {
+            line.append(sql, 0, MAX_SQL_LENGTH).append("...");
+        } else {
+            line.append(sql);
+        }
+        line.append('"');
+
+        SQL.info(line.toString());
+    }
+
+}
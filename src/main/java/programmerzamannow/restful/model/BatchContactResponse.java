@@ -0,0 +1,20 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchContactResponse {
+
+    private List<ContactResponse> contacts;
+
+    private List<String> missing;
+
+}
@@ -0,0 +1,23 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchGetContactRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotBlank @Size(max = 100) String> ids;
+
+}
@@ -0,0 +1,24 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchLoginRequest {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull @Valid LoginUserRequest> credentials;
+
+}
@@ -0,0 +1,21 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchLoginResponse {
+
+    private String username;
+
+    // null kalau username atau password salah
+    private String token;
+
+    private Long expiredAt;
+
+}
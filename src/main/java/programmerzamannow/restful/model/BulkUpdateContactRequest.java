@@ -0,0 +1,37 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkUpdateContactRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotBlank @Size(max = 100) String> ids;
+
+    @Size(min = 1, max = 100)
+    private String firstName;
+
+    @Size(max = 100)
+    private String lastName;
+
+    @Size(max = 100)
+    @Email
+    private String email;
+
+    @Size(max = 100)
+    private String phone;
+
+}
@@ -0,0 +1,24 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ContactDuplicateResponse {
+
+    private String primaryId;
+
+    private List<String> duplicateIds;
+
+    private List<String> reasons;
+
+    private List<ContactResponse> contacts;
+
+}
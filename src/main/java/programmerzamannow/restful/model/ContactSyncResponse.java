@@ -0,0 +1,26 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ContactSyncResponse {
+
+    private List<ContactResponse> changed;
+
+    private List<String> deleted;
+
+    private Long watermark;
+
+    private String watermarkId;
+
+    private Boolean hasMore;
+
+}
@@ -0,0 +1,29 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeleteContactByFilterRequest {
+
+    @Size(max = 100)
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String name;
+
+    @Size(max = 100)
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String email;
+
+    @Size(max = 100)
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String phone;
+
+}
@@ -0,0 +1,22 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Size;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LookupContactRequest {
+
+    @Size(max = 100)
+    private String phone;
+
+    @Size(max = 100)
+    private String email;
+
+}
@@ -0,0 +1,32 @@
+package programmerzamannow.restful.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEventResponse {
+
+    private Long id;
+
+    // urutan di stream (urutan commit), dipakai sebagai cursor
+    private Long position;
+
+    private String aggregateType;
+
+    private String eventType;
+
+    private String username;
+
+    // payload sudah berupa JSON di database, jadi dikirim apa adanya
+    @JsonRawValue
+    private String payload;
+
+    private Long createdAt;
+
+}
@@ -0,0 +1,29 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SearchContactRequest {
+
+    @NotBlank
+    @Size(max = 100)
+    private String query;
+
+    @NotNull
+    @Min(1)
+    @Max(100)
+    private Integer size;
+
+}
@@ -0,0 +1,32 @@
+package programmerzamannow.restful.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SyncContactRequest {
+
+    @NotNull
+    @Min(0)
+    private Long since;
+
+    @NotNull
+    @Size(max = 100)
+    private String sinceId;
+
+    @NotNull
+    @Min(1)
+    @Max(1000)
+    private Integer size;
+
+}
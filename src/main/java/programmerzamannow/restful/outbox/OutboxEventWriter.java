@@ -0,0 +1,54 @@
+package programmerzamannow.restful.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import programmerzamannow.restful.entity.OutboxEvent;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.event.UserChangedEvent;
+import programmerzamannow.restful.repository.OutboxEventRepository;
+
+// menulis event ke table outbox di transaksi yang sama dengan perubahan datanya,
+// jadi event hanya ada kalau perubahan di-commit dan tidak ada perubahan yang tidak punya event
+@Component
+public class OutboxEventWriter {
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private ObjectMapper objectMapper;
+
+    public OutboxEventWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onContactChanged(ContactChangedEvent event) {
+        save("contact", event.getType().name(), event.getUsername(), event);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserChanged(UserChangedEvent event) {
+        save("user", event.getType().name(), event.getUsername(), event);
+    }
+
+    private void save(String aggregateType, String eventType, String username, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .eventType(eventType)
+                    .username(username)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(System.currentTimeMillis())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + aggregateType + " event", e);
+        }
+    }
+
+}
@@ -0,0 +1,357 @@
+package programmerzamannow.restful.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import programmerzamannow.restful.entity.OutboxEvent;
+import programmerzamannow.restful.exception.UnavailableException;
+import programmerzamannow.restful.model.OutboxEventResponse;
+import programmerzamannow.restful.repository.OutboxEventRepository;
+import programmerzamannow.restful.stream.SseSender;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// satu thread memberi posisi stream ke event yang sudah commit, membaca table outbox berurutan berdasarkan posisi,
+// lalu membangunkan channel subscriber yang tertinggal.
+// Pengiriman ke socket dilakukan SseSender per subscriber, jadi consumer yang lambat tidak menahan polling
+// maupun subscriber lain. Event terbaru disimpan di memory, jadi subscriber yang tertinggal sedikit tidak perlu
+// membaca MySQL lagi
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    // subscriber yang sedang catch-up dibatasi per putaran supaya tidak menahan subscriber lain
+    private static final int MAX_BATCHES_PER_ROUND = 8;
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private boolean enabled;
+
+    private int batchSize;
+
+    private long pollIntervalMillis;
+
+    private int bufferSize;
+
+    private long retentionMillis;
+
+    private long streamTimeoutMillis;
+
+    private long heartbeatMillis;
+
+    private int senderThreads;
+
+    private long sendTimeoutMillis;
+
+    private long maxLagMillis;
+
+    private SseSender sender;
+
+    // ditulis thread relay, dibaca thread sender
+    private final NavigableMap<Long, OutboxEventResponse> recent = new ConcurrentSkipListMap<>();
+
+    // size() ConcurrentSkipListMap menghitung ulang semua entry, jumlahnya dicatat sendiri oleh thread relay
+    private int recentSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // posisi terakhir yang sudah dibaca dari database, posisi selalu berurutan tanpa lubang
+    private volatile long head;
+
+    private long lastPurge;
+
+    private long lastHeartbeat;
+
+    private Thread relay;
+
+    private volatile boolean running;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.poll-interval-ms:100}") long pollIntervalMillis,
+                       @Value("${outbox.relay.buffer-size:10000}") int bufferSize,
+                       @Value("${outbox.retention-ms:604800000}") long retentionMillis,
+                       @Value("${outbox.stream.timeout-ms:0}") long streamTimeoutMillis,
+                       @Value("${outbox.stream.heartbeat-ms:15000}") long heartbeatMillis,
+                       @Value("${outbox.stream.sender-threads:4}") int senderThreads,
+                       @Value("${outbox.stream.send-timeout-ms:5000}") long sendTimeoutMillis,
+                       @Value("${outbox.stream.max-lag-ms:60000}") long maxLagMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.bufferSize = bufferSize;
+        this.retentionMillis = retentionMillis;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.senderThreads = senderThreads;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        head = outboxEventRepository.findMaxPosition();
+        sender = new SseSender("outbox-stream", senderThreads, sendTimeoutMillis);
+        running = true;
+        relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        relay.interrupt();
+        relay.join(TimeUnit.SECONDS.toMillis(10));
+        sender.shutdown();
+        subscribers.clear();
+    }
+
+    // tanpa cursor, subscriber mulai dari event yang datang setelah ini
+    public SseEmitter subscribe(Long after) {
+        if (!enabled) {
+            throw UnavailableException.EVENT_RELAY_DISABLED;
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(after != null ? Math.max(after, 0) : head);
+        subscriber.channel = sender.open(emitter, subscriber, () -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.channel.wake();
+        return emitter;
+    }
+
+    public long getHead() {
+        return head;
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                boolean more = poll();
+                wakeSubscribers();
+                heartbeatIfDue();
+                purgeIfDue();
+
+                if (!more) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying", e);
+                try {
+                    Thread.sleep(pollIntervalMillis * 10);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // kembalian true kalau masih ada event yang bisa langsung dibaca tanpa menunggu
+    private boolean poll() {
+        Integer assigned = transactionTemplate.execute(status -> assignPositions());
+
+        List<OutboxEvent> events = outboxEventRepository.findAfter(head, PageRequest.of(0, batchSize));
+        long next = head;
+        for (OutboxEvent event : events) {
+            if (recent.put(event.getStreamPosition(), toResponse(event)) == null) {
+                recentSize++;
+            }
+            next = event.getStreamPosition();
+        }
+
+        while (recentSize > bufferSize) {
+            recent.pollFirstEntry();
+            recentSize--;
+        }
+
+        head = next;
+        return events.size() == batchSize || (assigned != null && assigned == batchSize);
+    }
+
+    // id auto increment dibagikan saat insert, bukan saat commit: transaksi yang lama (bulk update, batch write-behind,
+    // menunggu lock) bisa commit setelah id yang lebih besar sudah diteruskan. Posisi stream baru diberikan setelah
+    // event commit, jadi event yang terlambat tetap masuk stream di belakang, tidak pernah terlewat.
+    // Row state dikunci supaya relay di instance lain bergiliran dan posisi tidak pernah bolong
+    private int assignPositions() {
+        long last = outboxEventRepository.lockLastPosition();
+        List<OutboxEvent> events = outboxEventRepository.lockUnpositioned(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        for (OutboxEvent event : events) {
+            event.setStreamPosition(++last);
+        }
+        outboxEventRepository.updateLastPosition(last);
+        return events.size();
+    }
+
+    private void wakeSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cursor >= head) {
+                subscriber.behindSince = 0;
+                continue;
+            }
+
+            if (subscriber.behindSince == 0) {
+                subscriber.behindSince = now;
+            } else if (now - subscriber.behindSince > maxLagMillis) {
+                // terus tertinggal dari head, diputus supaya buffer tidak ditahan; client lanjut lagi dengan Last-Event-ID
+                log.debug("Closing outbox subscriber, behind head since {}", subscriber.behindSince);
+                subscriber.channel.close();
+                continue;
+            }
+            subscriber.channel.wake();
+        }
+    }
+
+    private List<OutboxEventResponse> eventsAfter(long cursor) {
+        List<OutboxEventResponse> events = new ArrayList<>();
+
+        Map.Entry<Long, OutboxEventResponse> first = recent.firstEntry();
+        Long oldest = first != null ? first.getKey() : null;
+        if (oldest != null && oldest <= cursor + 1) {
+            for (OutboxEventResponse event : recent.tailMap(cursor, false).values()) {
+                events.add(event);
+                if (events.size() >= batchSize) {
+                    break;
+                }
+            }
+            return events;
+        }
+
+        // cursor lebih lama dari buffer memory, baca dari MySQL
+        for (OutboxEvent event : outboxEventRepository.findAfter(cursor, PageRequest.of(0, batchSize))) {
+            if (event.getStreamPosition() > head) {
+                break;
+            }
+            events.add(toResponse(event));
+        }
+        return events;
+    }
+
+    private void heartbeatIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat < heartbeatMillis) {
+            return;
+        }
+        lastHeartbeat = now;
+
+        // proxy biasanya menutup koneksi yang lama diam, sekaligus mendeteksi client yang sudah putus
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat = true;
+            subscriber.channel.wake();
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurge = now;
+
+        long before = now - retentionMillis;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteCreatedBefore(before, PURGE_CHUNK_SIZE));
+        } while (deleted != null && deleted == PURGE_CHUNK_SIZE);
+    }
+
+    private OutboxEventResponse toResponse(OutboxEvent event) {
+        return OutboxEventResponse.builder()
+                .id(event.getId())
+                .position(event.getStreamPosition())
+                .aggregateType(event.getAggregateType())
+                .eventType(event.getEventType())
+                .username(event.getUsername())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
+    // cursor hanya diubah oleh thread sender yang sedang men-drain subscriber ini
+    private class Subscriber implements SseSender.Drain {
+
+        private SseSender.Channel channel;
+
+        private volatile long cursor;
+
+        private volatile boolean heartbeat;
+
+        private long behindSince;
+
+        private Subscriber(long cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void drain(SseSender.Channel channel) throws IOException {
+            if (heartbeat) {
+                heartbeat = false;
+                channel.send(SseEmitter.event().comment("keep-alive"));
+            }
+
+            // dibatasi per putaran, sisanya dilanjutkan setelah subscriber lain yang antri di sender
+            for (int i = 0; i < MAX_BATCHES_PER_ROUND && cursor < head; i++) {
+                List<OutboxEventResponse> events = eventsAfter(cursor);
+                if (events.isEmpty()) {
+                    cursor = head;
+                    return;
+                }
+
+                long last = events.get(events.size() - 1).getPosition();
+                channel.send(SseEmitter.event()
+                        .id(Long.toString(last))
+                        .name("outbox")
+                        .data(events, MediaType.APPLICATION_JSON));
+                cursor = last;
+            }
+        }
+
+        @Override
+        public boolean hasPending() {
+            return heartbeat || cursor < head;
+        }
+
+    }
+
+}
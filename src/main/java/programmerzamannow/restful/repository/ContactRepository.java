@@ -1,11 +1,17 @@
 package programmerzamannow.restful.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import programmerzamannow.restful.entity.Contact;
 import programmerzamannow.restful.entity.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +19,64 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
 
     Optional<Contact> findFirstByUserAndId(User user, String id);
 
+    List<Contact> findAllByUserAndIdIn(User user, Collection<String> ids);
+
+    List<Contact> findAllByUser(User user);
+
+    List<Contact> findAllByUserAndPhoneNormalized(User user, String phoneNormalized);
+
+    List<Contact> findAllByUserAndEmailNormalized(User user, String emailNormalized);
+
+    @Query("select c from Contact c where c.id > :afterId " +
+            "and ((c.phone is not null and c.phoneNormalized is null) or (c.email is not null and c.emailNormalized is null)) " +
+            "order by c.id asc")
+    List<Contact> findNotNormalized(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("select c from Contact c where c.user = :user " +
+            "and (c.updatedAt > :since or (c.updatedAt = :since and c.id > :sinceId)) " +
+            "and c.updatedAt <= :until " +
+            "order by c.updatedAt asc, c.id asc")
+    List<Contact> findChangedSince(@Param("user") User user,
+                                   @Param("since") Long since,
+                                   @Param("sinceId") String sinceId,
+                                   @Param("until") Long until,
+                                   Pageable pageable);
+
+    @Query("select c.id from Contact c where c.user = :user " +
+            "and (:name is null or c.firstName like :name escape '!' or c.lastName like :name escape '!') " +
+            "and (:email is null or c.email like :email escape '!') " +
+            "and (:phone is null or c.phone like :phone escape '!') " +
+            "and c.id > :afterId " +
+            "order by c.id asc")
+    List<String> findIdsByFilter(@Param("user") User user,
+                                 @Param("name") String name,
+                                 @Param("email") String email,
+                                 @Param("phone") String phone,
+                                 @Param("afterId") String afterId,
+                                 Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Contact c set " +
+            "c.firstName = coalesce(:firstName, c.firstName), " +
+            "c.lastName = coalesce(:lastName, c.lastName), " +
+            "c.email = coalesce(:email, c.email), " +
+            "c.phone = coalesce(:phone, c.phone), " +
+            "c.phoneNormalized = coalesce(:phoneNormalized, c.phoneNormalized), " +
+            "c.emailNormalized = coalesce(:emailNormalized, c.emailNormalized), " +
+            "c.updatedAt = :updatedAt " +
+            "where c.user = :user and c.id in :ids")
+    int updateAllByUserAndIdIn(@Param("user") User user,
+                               @Param("ids") Collection<String> ids,
+                               @Param("firstName") String firstName,
+                               @Param("lastName") String lastName,
+                               @Param("email") String email,
+                               @Param("phone") String phone,
+                               @Param("phoneNormalized") String phoneNormalized,
+                               @Param("emailNormalized") String emailNormalized,
+                               @Param("updatedAt") Long updatedAt);
+
+    @Modifying
+    @Query("delete from Contact c where c.user = :user and c.id in :ids")
+    int deleteAllByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<String> ids);
+
 }
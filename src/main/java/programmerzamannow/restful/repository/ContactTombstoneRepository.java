@@ -0,0 +1,36 @@
+package programmerzamannow.restful.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import programmerzamannow.restful.entity.ContactTombstone;
+import programmerzamannow.restful.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContactTombstoneRepository extends JpaRepository<ContactTombstone, String> {
+
+    @Query("select t from ContactTombstone t where t.user = :user " +
+            "and (t.deletedAt > :since or (t.deletedAt = :since and t.id > :sinceId)) " +
+            "and t.deletedAt <= :until " +
+            "order by t.deletedAt asc, t.id asc")
+    List<ContactTombstone> findDeletedSince(@Param("user") User user,
+                                            @Param("since") Long since,
+                                            @Param("sinceId") String sinceId,
+                                            @Param("until") Long until,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query(value = "insert into contact_tombstones (id, username, deleted_at) " +
+            "select id, username, :deletedAt from contacts where username = :username and id in (:ids)",
+            nativeQuery = true)
+    int insertForContacts(@Param("username") String username,
+                          @Param("ids") Collection<String> ids,
+                          @Param("deletedAt") Long deletedAt);
+
+}
@@ -0,0 +1,38 @@
+package programmerzamannow.restful.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import programmerzamannow.restful.entity.OutboxEvent;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.streamPosition > :after order by e.streamPosition asc")
+    List<OutboxEvent> findAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select coalesce(max(e.streamPosition), 0) from OutboxEvent e")
+    Long findMaxPosition();
+
+    // event dari transaksi yang belum commit masih dikunci penulisnya, dilewati dan diambil di putaran berikutnya
+    @Query(value = "select * from outbox_events where stream_position is null order by id limit :limit " +
+            "for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockUnpositioned(@Param("limit") int limit);
+
+    @Query(value = "select last_position from outbox_relay_state where id = 1 for update", nativeQuery = true)
+    Long lockLastPosition();
+
+    @Modifying
+    @Query(value = "update outbox_relay_state set last_position = :position where id = 1", nativeQuery = true)
+    int updateLastPosition(@Param("position") Long position);
+
+    @Modifying
+    @Query(value = "delete from outbox_events where created_at < :before limit :limit", nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") Long before, @Param("limit") int limit);
+
+}
@@ -1,6 +1,9 @@
 package programmerzamannow.restful.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import programmerzamannow.restful.entity.User;
 
@@ -9,4 +12,10 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findFirstByToken(String token);
+
+    // memakai index token_expired_at, limit menjaga satu transaksi tetap kecil
+    @Modifying
+    @Query(value = "update users set token = null, token_expired_at = null " +
+            "where token_expired_at < :now limit :limit", nativeQuery = true)
+    int clearExpiredTokens(@Param("now") Long now, @Param("limit") int limit);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package programmerzamannow.restful.resolver;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import programmerzamannow.restful.exception.AuthenticationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// endpoint internal (antar service) memakai header X-Internal-Token, bukan token login user
+@Component
+public class InternalTokenVerifier {
+
+    private byte[] apiToken;
+
+    public InternalTokenVerifier(@Value("${internal.api-token:}") String apiToken) {
+        this.apiToken = apiToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void verify(String token) {
+        // token kosong di konfigurasi berarti endpoint internal dimatikan
+        if (apiToken.length == 0 || token == null
+                || !MessageDigest.isEqual(apiToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw AuthenticationException.INTERNAL_TOKEN_INVALID;
+        }
+    }
+
+}
@@ -3,25 +3,32 @@ package programmerzamannow.restful.resolver;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
-import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.exception.AuthenticationException;
 import programmerzamannow.restful.repository.UserRepository;
+import programmerzamannow.restful.security.TokenFormat;
 
 import javax.servlet.http.HttpServletRequest;
 
 @Component
 public class UserArgumentResolver implements HandlerMethodArgumentResolver {
 
+    // dibaca oleh AccessLogFilter untuk kolom user di access log
+    public static final String USERNAME_ATTRIBUTE = UserArgumentResolver.class.getName() + ".username";
+
     private UserRepository userRepository;
 
-    public UserArgumentResolver(UserRepository userRepository) {
+    private TieredCache<User> userTokenCache;
+
+    public UserArgumentResolver(UserRepository userRepository, TieredCache<User> userTokenCache) {
         this.userRepository = userRepository;
+        this.userTokenCache = userTokenCache;
     }
 
     @Override
@@ -35,16 +42,25 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
         String token = request.getHeader("X-API-Token");
 
         if (token == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Silahkan login terlebih dahulu");
+            throw AuthenticationException.LOGIN_REQUIRED;
         }
 
-        User user = userRepository.findFirstByToken(token)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Silahkan login terlebih dahulu"));
+        // token dengan waktu expired di dalamnya langsung ditolak tanpa cache maupun database
+        Long expiredAt = TokenFormat.expiredAt(token);
+        if (expiredAt != null && expiredAt < System.currentTimeMillis()) {
+            throw AuthenticationException.TOKEN_EXPIRED;
+        }
+
+        User user = userTokenCache.get(token, () -> userRepository.findFirstByToken(token).orElse(null));
+        if (user == null) {
+            throw AuthenticationException.LOGIN_REQUIRED;
+        }
 
         if (user.getTokenExpiredAt() < System.currentTimeMillis()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token expired");
+            throw AuthenticationException.TOKEN_EXPIRED;
         }
 
+        request.setAttribute(USERNAME_ATTRIBUTE, user.getUsername());
         return user;
     }
 }
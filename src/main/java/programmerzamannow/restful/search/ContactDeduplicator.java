@@ -0,0 +1,242 @@
+package programmerzamannow.restful.search;
+
+import org.springframework.stereotype.Component;
+import programmerzamannow.restful.model.ContactDuplicateResponse;
+import programmerzamannow.restful.model.ContactResponse;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+@Component
+public class ContactDeduplicator {
+
+    private static final double NAME_SIMILARITY_THRESHOLD = 0.85;
+
+    private static final int MIN_PHONE_DIGITS = 6;
+
+    // block yang terlalu besar (misal nama yang sangat umum) dipotong supaya tetap mendekati linear
+    private static final int MAX_BLOCK_SIZE = 200;
+
+    private static final int BLOCKS_PER_TASK = 64;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public List<ContactDuplicateResponse> findDuplicates(List<ContactResponse> contacts) {
+        List<List<Integer>> blocks = blocksOf(contacts);
+        List<Match> matches = pool.invoke(new CompareBlocksTask(contacts, blocks, 0, blocks.size()));
+
+        // gabungkan pasangan yang cocok menjadi grup dengan union-find
+        int[] parent = new int[contacts.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Map<Integer, Set<String>> reasons = new HashMap<>();
+        for (Match match : matches) {
+            parent[find(parent, match.left)] = find(parent, match.right);
+        }
+        for (Match match : matches) {
+            reasons.computeIfAbsent(find(parent, match.left), root -> new TreeSet<>()).addAll(match.reasons);
+        }
+
+        Map<Integer, List<ContactResponse>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < contacts.size(); i++) {
+            int root = find(parent, i);
+            if (reasons.containsKey(root)) {
+                groups.computeIfAbsent(root, key -> new ArrayList<>()).add(contacts.get(i));
+            }
+        }
+
+        List<ContactDuplicateResponse> duplicates = new ArrayList<>();
+        groups.forEach((root, members) -> {
+            members.sort(Comparator.comparingInt(ContactDeduplicator::completeness).reversed()
+                    .thenComparing(ContactResponse::getId));
+
+            List<String> duplicateIds = new ArrayList<>();
+            members.subList(1, members.size()).forEach(contact -> duplicateIds.add(contact.getId()));
+
+            duplicates.add(ContactDuplicateResponse.builder()
+                    .primaryId(members.get(0).getId())
+                    .duplicateIds(duplicateIds)
+                    .reasons(new ArrayList<>(reasons.get(root)))
+                    .contacts(members)
+                    .build());
+        });
+        return duplicates;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private List<List<Integer>> blocksOf(List<ContactResponse> contacts) {
+        Map<String, List<Integer>> blocks = new HashMap<>();
+
+        for (int i = 0; i < contacts.size(); i++) {
+            ContactResponse contact = contacts.get(i);
+
+            String digits = ContactNormalizer.digits(contact.getPhone());
+            if (digits.length() >= MIN_PHONE_DIGITS) {
+                blocks.computeIfAbsent("phone:" + digits, key -> new ArrayList<>()).add(i);
+            }
+
+            String email = ContactNormalizer.email(contact.getEmail());
+            if (email != null && !email.isEmpty()) {
+                blocks.computeIfAbsent("email:" + email, key -> new ArrayList<>()).add(i);
+            }
+
+            String firstName = ContactNormalizer.soundex(contact.getFirstName());
+            if (!firstName.isEmpty()) {
+                String key = "name:" + firstName + ":" + ContactNormalizer.soundex(contact.getLastName());
+                blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<List<Integer>> result = new ArrayList<>();
+        for (List<Integer> block : blocks.values()) {
+            if (block.size() > 1) {
+                result.add(block.size() > MAX_BLOCK_SIZE ? block.subList(0, MAX_BLOCK_SIZE) : block);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> compare(ContactResponse left, ContactResponse right) {
+        List<String> reasons = new ArrayList<>(3);
+
+        String leftPhone = ContactNormalizer.digits(left.getPhone());
+        if (leftPhone.length() >= MIN_PHONE_DIGITS && leftPhone.equals(ContactNormalizer.digits(right.getPhone()))) {
+            reasons.add("phone");
+        }
+
+        String leftEmail = ContactNormalizer.email(left.getEmail());
+        if (leftEmail != null && !leftEmail.isEmpty() && leftEmail.equals(ContactNormalizer.email(right.getEmail()))) {
+            reasons.add("email");
+        }
+
+        if (similarity(fullName(left), fullName(right)) >= NAME_SIMILARITY_THRESHOLD) {
+            reasons.add("name");
+        }
+
+        return reasons;
+    }
+
+    private static String fullName(ContactResponse contact) {
+        List<String> tokens = ContactNormalizer.tokenize(contact.getFirstName());
+        tokens.addAll(ContactNormalizer.tokenize(contact.getLastName()));
+        return String.join(" ", tokens);
+    }
+
+    // 1 - (levenshtein / panjang string terpanjang)
+    private static double similarity(String left, String right) {
+        if (left.isEmpty() || right.isEmpty()) {
+            return 0;
+        }
+
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return 1.0 - (double) previous[right.length()] / Math.max(left.length(), right.length());
+    }
+
+    private static int completeness(ContactResponse contact) {
+        int score = 0;
+        score += contact.getLastName() != null ? 1 : 0;
+        score += contact.getEmail() != null ? 1 : 0;
+        score += contact.getPhone() != null ? 1 : 0;
+        return score;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static class Match {
+
+        private final int left;
+
+        private final int right;
+
+        private final List<String> reasons;
+
+        private Match(int left, int right, List<String> reasons) {
+            this.left = left;
+            this.right = right;
+            this.reasons = reasons;
+        }
+
+    }
+
+    private static class CompareBlocksTask extends RecursiveTask<List<Match>> {
+
+        private final List<ContactResponse> contacts;
+
+        private final List<List<Integer>> blocks;
+
+        private final int from;
+
+        private final int to;
+
+        private CompareBlocksTask(List<ContactResponse> contacts, List<List<Integer>> blocks, int from, int to) {
+            this.contacts = contacts;
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Match> compute() {
+            if (to - from > BLOCKS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                CompareBlocksTask left = new CompareBlocksTask(contacts, blocks, from, middle);
+                left.fork();
+                List<Match> matches = new CompareBlocksTask(contacts, blocks, middle, to).compute();
+                matches.addAll(left.join());
+                return matches;
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (Collection<Integer> block : blocks.subList(from, to)) {
+                List<Integer> members = new ArrayList<>(block);
+                for (int i = 0; i < members.size(); i++) {
+                    for (int j = i + 1; j < members.size(); j++) {
+                        List<String> reasons = compare(contacts.get(members.get(i)), contacts.get(members.get(j)));
+                        if (!reasons.isEmpty()) {
+                            matches.add(new Match(members.get(i), members.get(j), reasons));
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package programmerzamannow.restful.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class ContactNormalizer {
+
+    private ContactNormalizer() {
+    }
+
+    public static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        if (value == null) {
+            return tokens;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    public static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    // bentuk mirip E.164: "+" + kode negara + nomor, nomor lokal berawalan 0 memakai kode negara default.
+    // Hasil selalu diawali "+", supaya "+62812..." dan "62812..." tersimpan sebagai nilai yang sama
+    public static String phone(String value, String defaultCountryCode) {
+        if (value == null) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        String digits = digits(trimmed);
+        if (digits.isEmpty()) {
+            return "";
+        }
+
+        if (digits.startsWith("00")) {
+            return "+" + digits.substring(2);
+        }
+        if (digits.startsWith("0")) {
+            return "+" + defaultCountryCode + digits.substring(1);
+        }
+        // diawali "+" atau tanpa awalan 0: kode negara sudah ada di depan (misal 62812...)
+        return "+" + digits;
+    }
+
+    public static String email(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static boolean looksLikePhone(String value) {
+        if (value == null) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isLetter(value.charAt(i))) {
+                return false;
+            }
+        }
+        return digits(value).length() >= 4;
+    }
+
+    // American Soundex, cukup untuk mengelompokkan nama yang bunyinya mirip (Muhamad, Muhammad, Mohammad)
+    public static String soundex(String value) {
+        List<String> tokens = tokenize(value);
+        if (tokens.isEmpty()) {
+            return "";
+        }
+
+        String word = tokens.get(0);
+        StringBuilder code = new StringBuilder(4);
+        char last = 0;
+        for (int i = 0; i < word.length() && code.length() < 4; i++) {
+            char c = word.charAt(i);
+            char digit = soundexDigit(c);
+            if (i == 0) {
+                code.append(Character.toUpperCase(c));
+            } else if (digit != '0' && digit != last) {
+                code.append(digit);
+            }
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+
+    private static char soundexDigit(char c) {
+        switch (c) {
+            case 'b': case 'f': case 'p': case 'v':
+                return '1';
+            case 'c': case 'g': case 'j': case 'k': case 'q': case 's': case 'x': case 'z':
+                return '2';
+            case 'd': case 't':
+                return '3';
+            case 'l':
+                return '4';
+            case 'm': case 'n':
+                return '5';
+            case 'r':
+                return '6';
+            default:
+                return '0';
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package programmerzamannow.restful.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import programmerzamannow.restful.cache.SharedCache;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import java.util.List;
+
+@Component
+public class ContactSearchIndex {
+
+    private final UserIndexCache<UserContactIndex> indexes;
+
+    public ContactSearchIndex(ContactRepository contactRepository, SharedCache sharedCache,
+                              @Value("${contact.search.memory-budget-bytes:67108864}") long memoryBudgetBytes) {
+        this.indexes = new UserIndexCache<>("contact-search", contactRepository, sharedCache,
+                UserContactIndex::new, memoryBudgetBytes);
+    }
+
+    // index dibangun dari database saat pertama kali user melakukan pencarian,
+    // setelah itu cukup diupdate lewat event dari ContactService
+    public List<ContactResponse> search(User user, String query, int size) {
+        return indexes.get(user).search(query, size);
+    }
+
+    public void evict(String username) {
+        indexes.evict(username);
+    }
+
+    @TransactionalEventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        indexes.onContactChanged(event);
+    }
+
+}
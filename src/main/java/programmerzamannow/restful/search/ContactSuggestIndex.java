@@ -0,0 +1,38 @@
+package programmerzamannow.restful.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import programmerzamannow.restful.cache.SharedCache;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.model.ContactSuggestionResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import java.util.List;
+
+@Component
+public class ContactSuggestIndex {
+
+    private final UserIndexCache<UserSuggestIndex> indexes;
+
+    public ContactSuggestIndex(ContactRepository contactRepository, SharedCache sharedCache,
+                               @Value("${contact.suggest.memory-budget-bytes:67108864}") long memoryBudgetBytes) {
+        this.indexes = new UserIndexCache<>("contact-suggest", contactRepository, sharedCache,
+                UserSuggestIndex::new, memoryBudgetBytes);
+    }
+
+    public List<ContactSuggestionResponse> suggest(User user, String query, int size) {
+        return indexes.get(user).suggest(query, size);
+    }
+
+    public void evict(String username) {
+        indexes.evict(username);
+    }
+
+    @TransactionalEventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        indexes.onContactChanged(event);
+    }
+
+}
@@ -0,0 +1,177 @@
+package programmerzamannow.restful.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PrefixTrie {
+
+    // perkiraan kasar ukuran object di heap, dipakai untuk budget memory
+    static final long NODE_BYTES = 48;
+
+    static final long ENTRY_BYTES = 64;
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+
+    private long nodeCount = 1;
+
+    private long entryCount = 0;
+
+    public void insert(String key, String id) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = node.addChild(key.charAt(i));
+                nodeCount++;
+            }
+            node = child;
+        }
+
+        if (node.ids == null) {
+            node.ids = new ArrayList<>(1);
+        }
+        if (!node.ids.contains(id)) {
+            node.ids.add(id);
+            entryCount++;
+        }
+    }
+
+    public void remove(String key, String id) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        Node node = path[key.length()];
+        if (node.ids == null || !node.ids.remove(id)) {
+            return;
+        }
+        entryCount--;
+        if (node.ids.isEmpty()) {
+            node.ids = null;
+        }
+
+        // buang node yang sudah tidak punya isi supaya memory ikut turun
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+            nodeCount--;
+        }
+    }
+
+    // hasil berupa id -> key, urut dari key terpendek supaya kata yang paling mirip muncul duluan
+    public Map<String, String> collect(String prefix, int limit) {
+        Map<String, String> result = new LinkedHashMap<>();
+
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return result;
+        }
+
+        List<Node> level = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        level.add(node);
+        keys.add(prefix);
+
+        while (!level.isEmpty() && result.size() < limit) {
+            List<Node> nextLevel = new ArrayList<>();
+            List<String> nextKeys = new ArrayList<>();
+
+            for (int n = 0; n < level.size() && result.size() < limit; n++) {
+                Node current = level.get(n);
+                String key = keys.get(n);
+                if (current.ids != null) {
+                    for (String id : current.ids) {
+                        result.putIfAbsent(id, key);
+                        if (result.size() >= limit) {
+                            break;
+                        }
+                    }
+                }
+                for (int c = 0; c < current.keys.length; c++) {
+                    nextLevel.add(current.children[c]);
+                    nextKeys.add(key + current.keys[c]);
+                }
+            }
+
+            level = nextLevel;
+            keys = nextKeys;
+        }
+
+        return result;
+    }
+
+    public long estimatedBytes() {
+        return nodeCount * NODE_BYTES + entryCount * ENTRY_BYTES;
+    }
+
+    private static class Node {
+
+        // anak disimpan dalam array terurut, jauh lebih hemat dari HashMap per node
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private List<String> ids;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char c) {
+            int index = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            Node child = new Node();
+            newKeys[index] = c;
+            newChildren[index] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        private boolean isEmpty() {
+            return ids == null && keys.length == 0;
+        }
+
+    }
+
+}
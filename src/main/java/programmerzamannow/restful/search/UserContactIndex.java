@@ -0,0 +1,186 @@
+package programmerzamannow.restful.search;
+
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class UserContactIndex implements UserIndex {
+
+    private static final int FIRST_NAME_WEIGHT = 4;
+
+    private static final int LAST_NAME_WEIGHT = 3;
+
+    private static final int EMAIL_WEIGHT = 2;
+
+    private static final int PHONE_WEIGHT = 2;
+
+    private static final int MIN_PHONE_SUFFIX = 4;
+
+    // term -> (contact id -> bobot field)
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+
+    // contact id -> term, dipakai saat contact diupdate atau dihapus
+    private final Map<String, Map<String, Integer>> contactTerms = new HashMap<>();
+
+    private final Map<String, ContactResponse> contacts = new HashMap<>();
+
+    // jumlah pasangan (term, contact) di postings
+    private int postingCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ContactResponse contact) {
+        Map<String, Integer> terms = termsOf(contact);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(contact.getId());
+
+            contacts.put(contact.getId(), contact);
+            contactTerms.put(contact.getId(), terms);
+            terms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(contact.getId(), weight));
+            postingCount += terms.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String contactId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(contactId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contacts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (postings.size() + postingCount * 2L + contacts.size() * 4L) * PrefixTrie.ENTRY_BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ContactResponse> search(String query, int size) {
+        List<String> queryTokens = ContactNormalizer.tokenize(query);
+        if (ContactNormalizer.looksLikePhone(query)) {
+            queryTokens = Collections.singletonList(ContactNormalizer.digits(query));
+        }
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> scores = null;
+
+            // semua token harus cocok (AND), skor dijumlahkan dari match terbaik tiap token
+            for (String token : queryTokens) {
+                Map<String, Integer> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Map<String, Integer>> entry : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    boolean exact = entry.getKey().length() == token.length();
+                    entry.getValue().forEach((contactId, weight) ->
+                            tokenScores.merge(contactId, exact ? weight * 2 : weight, Math::max));
+                }
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((contactId, score) -> score + tokenScores.get(contactId));
+                }
+
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<String, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<ContactResponse> result = new ArrayList<>(Math.min(size, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < size; i++) {
+                result.add(contacts.get(ranked.get(i).getKey()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(String contactId) {
+        contacts.remove(contactId);
+
+        Map<String, Integer> terms = contactTerms.remove(contactId);
+        if (terms == null) {
+            return;
+        }
+
+        postingCount -= terms.size();
+        for (String term : terms.keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(contactId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private Map<String, Integer> termsOf(ContactResponse contact) {
+        Map<String, Integer> terms = new HashMap<>();
+
+        addTokens(terms, contact.getFirstName(), FIRST_NAME_WEIGHT);
+        addTokens(terms, contact.getLastName(), LAST_NAME_WEIGHT);
+
+        String email = ContactNormalizer.email(contact.getEmail());
+        if (email != null && !email.isEmpty()) {
+            terms.merge(email, EMAIL_WEIGHT, Math::max);
+            addTokens(terms, email, EMAIL_WEIGHT);
+        }
+
+        // suffix nomor telepon ikut diindex supaya pencarian potongan nomor juga cocok lewat prefix
+        String digits = ContactNormalizer.digits(contact.getPhone());
+        if (!digits.isEmpty()) {
+            terms.merge(digits, PHONE_WEIGHT, Math::max);
+            for (int i = 1; digits.length() - i >= MIN_PHONE_SUFFIX; i++) {
+                terms.merge(digits.substring(i), PHONE_WEIGHT, Math::max);
+            }
+        }
+
+        return terms;
+    }
+
+    private void addTokens(Map<String, Integer> terms, String value, int weight) {
+        for (String token : ContactNormalizer.tokenize(value)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package programmerzamannow.restful.search;
+
+import programmerzamannow.restful.model.ContactResponse;
+
+// index contact milik satu user di memory, disimpan dan dibuang oleh UserIndexCache
+public interface UserIndex {
+
+    void put(ContactResponse contact);
+
+    void remove(String contactId);
+
+    // perkiraan kasar pemakaian heap, dipakai untuk batas memory
+    long estimatedBytes();
+
+}
@@ -0,0 +1,175 @@
+package programmerzamannow.restful.search;
+
+import programmerzamannow.restful.cache.SharedCache;
+import programmerzamannow.restful.cache.SingleFlight;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// index per user di memory JVM ini, dibangun dari database saat pertama dipakai lalu diupdate lewat event.
+// Total ukuran dibatasi memory budget (user yang paling lama tidak dipakai dibuang duluan).
+// Perubahan disiarkan lewat SharedCache, instance lain membuang index user tersebut dan membangun ulang saat dipakai
+public class UserIndexCache<I extends UserIndex> {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final String name;
+
+    private final ContactRepository contactRepository;
+
+    private final SharedCache sharedCache;
+
+    private final Supplier<I> factory;
+
+    private final long memoryBudgetBytes;
+
+    // pesan invalidasi dari instance ini sendiri diabaikan, perubahannya sudah diterapkan langsung
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, I> indexes = new ConcurrentHashMap<>();
+
+    // urutan akses untuk LRU, user yang paling lama tidak dipakai dibuang duluan
+    private final LinkedHashMap<String, Boolean> recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final SingleFlight<String, I> building = new SingleFlight<>();
+
+    // naik setiap ada perubahan atau invalidasi user (per stripe), index yang dibangun
+    // bersamaan dengan perubahan tidak disimpan karena bisa jadi belum memuat perubahan itu
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public UserIndexCache(String name, ContactRepository contactRepository, SharedCache sharedCache,
+                          Supplier<I> factory, long memoryBudgetBytes) {
+        this.name = name;
+        this.contactRepository = contactRepository;
+        this.sharedCache = sharedCache;
+        this.factory = factory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+
+        sharedCache.subscribe(channel(), this::onInvalidation);
+    }
+
+    public I get(User user) {
+        I index = indexes.get(user.getUsername());
+        if (index != null) {
+            touch(user.getUsername());
+            return index;
+        }
+
+        // query database berjalan di luar lock map, jadi tidak menahan user lain.
+        // Pencarian bersamaan untuk user yang sama cukup menunggu satu pemuatan
+        return building.execute(user.getUsername(), () -> build(user));
+    }
+
+    // dipanggil setelah commit
+    public void onContactChanged(ContactChangedEvent event) {
+        I index = indexes.compute(event.getUsername(), (username, current) -> {
+            generations.incrementAndGet(stripe(username));
+            if (current != null) {
+                if (event.getType() == ContactChangedEvent.Type.DELETED) {
+                    event.getIds().forEach(current::remove);
+                } else {
+                    event.getContacts().forEach(current::put);
+                }
+            }
+            return current;
+        });
+
+        sharedCache.publish(channel(), instanceId + ":" + event.getUsername());
+
+        if (index != null) {
+            enforceBudget(event.getUsername());
+        }
+    }
+
+    public void evict(String username) {
+        indexes.compute(username, (key, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+        synchronized (recentlyUsed) {
+            recentlyUsed.remove(username);
+        }
+    }
+
+    private I build(User user) {
+        String username = user.getUsername();
+        long generation = generations.get(stripe(username));
+
+        I index = factory.get();
+        contactRepository.findAllByUser(user).forEach(contact -> index.put(ContactResponse.builder()
+                .id(contact.getId())
+                .firstName(contact.getFirstName())
+                .lastName(contact.getLastName())
+                .email(contact.getEmail())
+                .phone(contact.getPhone())
+                .build()));
+
+        // compute diserialkan dengan onContactChanged untuk user yang sama: perubahan yang masuk selama
+        // pemuatan menaikkan generation, index ini tetap dipakai untuk pencarian sekarang tapi tidak disimpan
+        I stored = indexes.compute(username, (key, current) ->
+                current != null || generations.get(stripe(key)) != generation ? current : index);
+        if (stored == null) {
+            return index;
+        }
+
+        touch(username);
+        return stored;
+    }
+
+    private void onInvalidation(String message) {
+        if (!message.startsWith(instanceId + ":")) {
+            evict(message.substring(message.indexOf(':') + 1));
+        }
+    }
+
+    private void touch(String username) {
+        boolean added;
+        synchronized (recentlyUsed) {
+            added = recentlyUsed.put(username, Boolean.TRUE) == null;
+        }
+
+        if (added) {
+            enforceBudget(username);
+        }
+    }
+
+    private void enforceBudget(String current) {
+        synchronized (recentlyUsed) {
+            long total = 0;
+            for (String username : recentlyUsed.keySet()) {
+                I index = indexes.get(username);
+                total += index == null ? 0 : index.estimatedBytes();
+            }
+
+            Iterator<String> iterator = recentlyUsed.keySet().iterator();
+            while (total > memoryBudgetBytes && iterator.hasNext()) {
+                String username = iterator.next();
+                if (username.equals(current)) {
+                    continue;
+                }
+
+                I evicted = indexes.remove(username);
+                iterator.remove();
+                total -= evicted == null ? 0 : evicted.estimatedBytes();
+            }
+        }
+    }
+
+    private static int stripe(String username) {
+        return Math.floorMod(username.hashCode(), GENERATION_STRIPES);
+    }
+
+    private String channel() {
+        return "index-invalidation:" + name;
+    }
+
+}
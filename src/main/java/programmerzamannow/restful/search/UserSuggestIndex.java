@@ -0,0 +1,119 @@
+package programmerzamannow.restful.search;
+
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.model.ContactSuggestionResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class UserSuggestIndex implements UserIndex {
+
+    private final PrefixTrie trie = new PrefixTrie();
+
+    private final Map<String, ContactResponse> contacts = new HashMap<>();
+
+    private final Map<String, Set<String>> contactKeys = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(ContactResponse contact) {
+        Set<String> keys = keysOf(contact);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(contact.getId());
+
+            contacts.put(contact.getId(), contact);
+            contactKeys.put(contact.getId(), keys);
+            keys.forEach(key -> trie.insert(key, contact.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String contactId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(contactId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ContactSuggestionResponse> suggest(String query, int size) {
+        String prefix = ContactNormalizer.looksLikePhone(query)
+                ? ContactNormalizer.digits(query)
+                : query.trim().toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            List<ContactSuggestionResponse> suggestions = new ArrayList<>();
+            trie.collect(prefix, size).forEach((contactId, key) -> {
+                ContactResponse contact = contacts.get(contactId);
+                suggestions.add(ContactSuggestionResponse.builder()
+                        .id(contactId)
+                        .name(contact.getLastName() == null
+                                ? contact.getFirstName()
+                                : contact.getFirstName() + " " + contact.getLastName())
+                        .value(key)
+                        .build());
+            });
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return trie.estimatedBytes() + contacts.size() * PrefixTrie.ENTRY_BYTES * 4;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(String contactId) {
+        contacts.remove(contactId);
+
+        Set<String> keys = contactKeys.remove(contactId);
+        if (keys != null) {
+            keys.forEach(key -> trie.remove(key, contactId));
+        }
+    }
+
+    private Set<String> keysOf(ContactResponse contact) {
+        Set<String> keys = new LinkedHashSet<>();
+
+        addKey(keys, contact.getFirstName());
+        addKey(keys, contact.getLastName());
+        if (contact.getLastName() != null) {
+            addKey(keys, contact.getFirstName() + " " + contact.getLastName());
+        }
+        addKey(keys, ContactNormalizer.email(contact.getEmail()));
+
+        String digits = ContactNormalizer.digits(contact.getPhone());
+        if (!digits.isEmpty()) {
+            keys.add(digits);
+        }
+
+        return keys;
+    }
+
+    private void addKey(Set<String> keys, String value) {
+        if (value != null && !value.isBlank()) {
+            keys.add(value.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+}
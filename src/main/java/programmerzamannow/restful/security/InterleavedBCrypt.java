@@ -0,0 +1,329 @@
+package programmerzamannow.restful.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// BCrypt yang menghitung beberapa hash sekaligus. Satu Blowfish round adalah rantai lookup S-box yang saling bergantung,
+// jadi satu hash tidak bisa memakai unit eksekusi CPU sepenuhnya. Dengan LANES hash independen di loop yang sama,
+// CPU bisa menjalankan lookup dari lane lain selagi menunggu lane sebelumnya.
+// Hasilnya harus identik dengan BCrypt, format di luar $2a/$2b/$2y (misal $2x) diteruskan ke BCrypt biasa
+public final class InterleavedBCrypt {
+
+    public static final int LANES = 4;
+
+    private static final int P_LENGTH = 18;
+
+    private static final int S_LENGTH = 1024;
+
+    private static final int SALT_LENGTH = 16;
+
+    private InterleavedBCrypt() {
+    }
+
+    public static String[] hashpw(String[] passwords, String[] salts) {
+        String[] result = new String[passwords.length];
+        List<Lane> lanes = new ArrayList<>(passwords.length);
+
+        for (int i = 0; i < passwords.length; i++) {
+            Lane lane = Lane.parse(i, passwords[i], salts[i]);
+            if (lane != null) {
+                lanes.add(lane);
+            } else {
+                result[i] = BCrypt.hashpw(passwords[i], salts[i]);
+            }
+        }
+
+        crypt(lanes);
+        lanes.forEach(lane -> result[lane.index] = lane.result);
+        return result;
+    }
+
+    public static boolean[] checkpw(String[] passwords, String[] hashes) {
+        boolean[] result = new boolean[passwords.length];
+        List<Lane> lanes = new ArrayList<>(passwords.length);
+
+        for (int i = 0; i < passwords.length; i++) {
+            Lane lane = Lane.parse(i, passwords[i], hashes[i]);
+            if (lane != null) {
+                lanes.add(lane);
+            } else {
+                result[i] = BCrypt.checkpw(passwords[i], hashes[i]);
+            }
+        }
+
+        crypt(lanes);
+        lanes.forEach(lane -> result[lane.index] = BCrypt.equalsNoEarlyReturn(hashes[lane.index], lane.result));
+        return result;
+    }
+
+    // lane dikelompokkan per cost, satu kelompok maksimal LANES hash dengan cost yang sama
+    private static void crypt(List<Lane> lanes) {
+        lanes.sort(Comparator.comparingInt(lane -> lane.logRounds));
+
+        int from = 0;
+        while (from < lanes.size()) {
+            int to = from + 1;
+            while (to < lanes.size() && to - from < LANES && lanes.get(to).logRounds == lanes.get(from).logRounds) {
+                to++;
+            }
+
+            Lane[] group = new Lane[LANES];
+            for (int k = 0; k < LANES; k++) {
+                // lane yang kosong diisi ulang dengan lane pertama, hasilnya dibuang
+                group[k] = lanes.get(from + Math.min(k, to - from - 1));
+            }
+            String[] hashes = crypt(group);
+            for (int k = 0; k < to - from; k++) {
+                group[k].result = hashes[k];
+            }
+
+            from = to;
+        }
+    }
+
+    private static String[] crypt(Lane[] group) {
+        int[][] p = new int[LANES][];
+        int[][] s = new int[LANES][];
+        int[] lr = new int[LANES * 2];
+
+        // ekskey: P di-xor dengan password, lalu P dan S diisi ulang sambil mencampur salt
+        for (int k = 0; k < LANES; k++) {
+            p[k] = BCrypt.P_orig.clone();
+            s[k] = BCrypt.S_orig.clone();
+            for (int i = 0; i < P_LENGTH; i++) {
+                p[k][i] ^= group[k].passwordWords[i];
+            }
+            p[k][0] ^= group[k].safetySign;
+        }
+
+        int saltOffset = 0;
+        for (int i = 0; i < P_LENGTH; i += 2) {
+            mixSalt(group, lr, saltOffset);
+            saltOffset += 2;
+            encipher(p, s, lr);
+            store(p, lr, i);
+        }
+        for (int i = 0; i < S_LENGTH; i += 2) {
+            mixSalt(group, lr, saltOffset);
+            saltOffset += 2;
+            encipher(p, s, lr);
+            store(s, lr, i);
+        }
+
+        long rounds = 1L << group[0].logRounds;
+        for (long round = 0; round < rounds; round++) {
+            expand(p, s, lr, group, true);
+            expand(p, s, lr, group, false);
+        }
+
+        int[][] cdata = new int[LANES][];
+        for (int k = 0; k < LANES; k++) {
+            cdata[k] = BCrypt.bf_crypt_ciphertext.clone();
+        }
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < cdata[0].length; j += 2) {
+                for (int k = 0; k < LANES; k++) {
+                    lr[k * 2] = cdata[k][j];
+                    lr[k * 2 + 1] = cdata[k][j + 1];
+                }
+                encipher(p, s, lr);
+                store(cdata, lr, j);
+            }
+        }
+
+        String[] hashes = new String[LANES];
+        for (int k = 0; k < LANES; k++) {
+            hashes[k] = group[k].encode(cdata[k]);
+        }
+        return hashes;
+    }
+
+    private static void mixSalt(Lane[] group, int[] lr, int offset) {
+        for (int k = 0; k < LANES; k++) {
+            lr[k * 2] ^= group[k].saltWords[offset & 3];
+            lr[k * 2 + 1] ^= group[k].saltWords[(offset + 1) & 3];
+        }
+    }
+
+    // key schedule biasa (BCrypt.key) untuk password atau salt di semua lane
+    private static void expand(int[][] p, int[][] s, int[] lr, Lane[] group, boolean password) {
+        for (int k = 0; k < LANES; k++) {
+            int[] words = password ? group[k].passwordWords : group[k].saltWords;
+            for (int i = 0; i < P_LENGTH; i++) {
+                p[k][i] ^= words[i % words.length];
+            }
+        }
+
+        Arrays.fill(lr, 0);
+        for (int i = 0; i < P_LENGTH; i += 2) {
+            encipher(p, s, lr);
+            store(p, lr, i);
+        }
+        for (int i = 0; i < S_LENGTH; i += 2) {
+            encipher(p, s, lr);
+            store(s, lr, i);
+        }
+    }
+
+    private static void store(int[][] target, int[] lr, int i) {
+        for (int k = 0; k < LANES; k++) {
+            target[k][i] = lr[k * 2];
+            target[k][i + 1] = lr[k * 2 + 1];
+        }
+    }
+
+    // Blowfish encipher untuk LANES blok sekaligus, ditulis manual supaya JIT tidak perlu membuka loop lane
+    private static void encipher(int[][] p, int[][] s, int[] lr) {
+        int[] p0 = p[0], p1 = p[1], p2 = p[2], p3 = p[3];
+        int[] s0 = s[0], s1 = s[1], s2 = s[2], s3 = s[3];
+
+        int l0 = lr[0] ^ p0[0], r0 = lr[1];
+        int l1 = lr[2] ^ p1[0], r1 = lr[3];
+        int l2 = lr[4] ^ p2[0], r2 = lr[5];
+        int l3 = lr[6] ^ p3[0], r3 = lr[7];
+
+        for (int i = 1; i < P_LENGTH - 1; i += 2) {
+            r0 ^= feistel(s0, l0) ^ p0[i];
+            r1 ^= feistel(s1, l1) ^ p1[i];
+            r2 ^= feistel(s2, l2) ^ p2[i];
+            r3 ^= feistel(s3, l3) ^ p3[i];
+
+            l0 ^= feistel(s0, r0) ^ p0[i + 1];
+            l1 ^= feistel(s1, r1) ^ p1[i + 1];
+            l2 ^= feistel(s2, r2) ^ p2[i + 1];
+            l3 ^= feistel(s3, r3) ^ p3[i + 1];
+        }
+
+        lr[0] = r0 ^ p0[P_LENGTH - 1];
+        lr[1] = l0;
+        lr[2] = r1 ^ p1[P_LENGTH - 1];
+        lr[3] = l1;
+        lr[4] = r2 ^ p2[P_LENGTH - 1];
+        lr[5] = l2;
+        lr[6] = r3 ^ p3[P_LENGTH - 1];
+        lr[7] = l3;
+    }
+
+    private static int feistel(int[] s, int x) {
+        int n = s[x >>> 24];
+        n += s[0x100 | ((x >>> 16) & 0xff)];
+        n ^= s[0x200 | ((x >>> 8) & 0xff)];
+        n += s[0x300 | (x & 0xff)];
+        return n;
+    }
+
+    private static class Lane {
+
+        private final int index;
+
+        private final char minor;
+
+        private final int logRounds;
+
+        private final byte[] salt;
+
+        // 18 word password yang dipakai ulang di setiap round, cukup dihitung sekali
+        private final int[] passwordWords;
+
+        private final int[] saltWords;
+
+        private final int safetySign;
+
+        private String result;
+
+        private Lane(int index, char minor, int logRounds, byte[] salt, byte[] password) {
+            this.index = index;
+            this.minor = minor;
+            this.logRounds = logRounds;
+            this.salt = salt;
+            this.passwordWords = new int[P_LENGTH];
+            this.saltWords = new int[SALT_LENGTH / 4];
+
+            // sama dengan BCrypt.ekskey: deteksi sign extension untuk safety measure $2a
+            int offset = 0, sign = 0, diff = 0;
+            for (int i = 0; i < P_LENGTH; i++) {
+                int word = 0, buggy = 0;
+                for (int j = 0; j < 4; j++) {
+                    word = (word << 8) | (password[offset] & 0xff);
+                    buggy = (buggy << 8) | password[offset];
+                    if (j > 0) {
+                        sign |= buggy & 0x80;
+                    }
+                    offset = (offset + 1) % password.length;
+                }
+                passwordWords[i] = word;
+                diff |= word ^ buggy;
+            }
+            for (int i = 0; i < saltWords.length; i++) {
+                for (int j = 0; j < 4; j++) {
+                    saltWords[i] = (saltWords[i] << 8) | (salt[i * 4 + j] & 0xff);
+                }
+            }
+
+            int safety = minor == 'a' ? 0x10000 : 0;
+            diff |= diff >> 16;
+            diff &= 0xffff;
+            diff += 0xffff;
+            sign <<= 9;
+            sign &= ~diff & safety;
+            this.safetySign = sign;
+        }
+
+        // null kalau formatnya bukan $2a/$2b/$2y dengan cost 4..31, lane seperti itu dihitung oleh BCrypt
+        private static Lane parse(int index, String password, String salt) {
+            if (password == null || salt == null || salt.length() < 29
+                    || salt.charAt(0) != '$' || salt.charAt(1) != '2' || salt.charAt(3) != '$' || salt.charAt(6) != '$') {
+                return null;
+            }
+            char minor = salt.charAt(2);
+            if (minor != 'a' && minor != 'b' && minor != 'y') {
+                return null;
+            }
+            if (!Character.isDigit(salt.charAt(4)) || !Character.isDigit(salt.charAt(5))) {
+                return null;
+            }
+            int logRounds = Integer.parseInt(salt.substring(4, 6));
+            if (logRounds < BCrypt.MIN_LOG_ROUNDS || logRounds > BCrypt.MAX_LOG_ROUNDS) {
+                return null;
+            }
+
+            byte[] saltBytes;
+            try {
+                saltBytes = BCrypt.decode_base64(salt.substring(7, 29), SALT_LENGTH);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (saltBytes.length != SALT_LENGTH) {
+                return null;
+            }
+
+            byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+            return new Lane(index, minor, logRounds, saltBytes, Arrays.copyOf(passwordBytes, passwordBytes.length + 1));
+        }
+
+        private String encode(int[] cdata) {
+            byte[] hashed = new byte[cdata.length * 4];
+            for (int i = 0, j = 0; i < cdata.length; i++) {
+                hashed[j++] = (byte) (cdata[i] >> 24);
+                hashed[j++] = (byte) (cdata[i] >> 16);
+                hashed[j++] = (byte) (cdata[i] >> 8);
+                hashed[j++] = (byte) cdata[i];
+            }
+
+            StringBuilder rs = new StringBuilder(60);
+            rs.append("$2").append(minor).append('$');
+            if (logRounds < 10) {
+                rs.append('0');
+            }
+            rs.append(logRounds).append('$');
+            BCrypt.encode_base64(salt, salt.length, rs);
+            BCrypt.encode_base64(hashed, hashed.length - 1, rs);
+            return rs.toString();
+        }
+
+    }
+
+}
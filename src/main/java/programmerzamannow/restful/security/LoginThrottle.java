@@ -0,0 +1,202 @@
+package programmerzamannow.restful.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// menghitung login gagal per username dan per IP di memory. Setelah beberapa kali gagal, percobaan berikutnya
+// ditolak tanpa BCrypt maupun query dengan jeda yang naik dua kali lipat, jadi penyerang tidak bisa memaksa hashing tanpa batas.
+// Username yang tidak ada diperlakukan sama persis, supaya throttle tidak bisa dipakai untuk menebak username.
+// Percobaan dipesan sebelum hashing, jadi request paralel ikut dihitung walaupun hasilnya belum keluar
+@Component
+public class LoginThrottle {
+
+    private static final String UNKNOWN_ADDRESS = "unknown";
+
+    private final Map<String, Attempts> usernames = new ConcurrentHashMap<>();
+
+    private final Map<String, Attempts> addresses = new ConcurrentHashMap<>();
+
+    private int usernameFreeAttempts;
+
+    private int addressFreeAttempts;
+
+    private long baseBackoffMillis;
+
+    private long maxBackoffMillis;
+
+    private long resetAfterMillis;
+
+    private int maxTracked;
+
+    public LoginThrottle(@Value("${auth.login.username-free-attempts:5}") int usernameFreeAttempts,
+                         @Value("${auth.login.address-free-attempts:50}") int addressFreeAttempts,
+                         @Value("${auth.login.base-backoff-ms:1000}") long baseBackoffMillis,
+                         @Value("${auth.login.max-backoff-ms:900000}") long maxBackoffMillis,
+                         @Value("${auth.login.reset-after-ms:900000}") long resetAfterMillis,
+                         @Value("${auth.login.max-tracked:100000}") int maxTracked) {
+        this.usernameFreeAttempts = usernameFreeAttempts;
+        this.addressFreeAttempts = addressFreeAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.resetAfterMillis = resetAfterMillis;
+        this.maxTracked = maxTracked;
+    }
+
+    // dipanggil sebelum query dan BCrypt, false berarti ditolak. Setiap true harus diakhiri
+    // onFailure, onSuccess atau release
+    public boolean tryAcquire(String username, String address) {
+        return tryAcquire(username, address, System.currentTimeMillis());
+    }
+
+    public void onFailure(String username, String address) {
+        onFailure(username, address, System.currentTimeMillis());
+    }
+
+    // counter IP sengaja tidak direset, satu login benar tidak menghapus jejak percobaan ke username lain
+    public void onSuccess(String username, String address) {
+        usernames.remove(usernameKey(username));
+        release(addresses, addressKey(address));
+    }
+
+    // percobaan yang tidak selesai (misal database error) tidak dihitung gagal
+    public void release(String username, String address) {
+        release(usernames, usernameKey(username));
+        release(addresses, addressKey(address));
+    }
+
+    boolean tryAcquire(String username, String address, long now) {
+        String usernameKey = usernameKey(username);
+        if (!reserve(usernames, usernameKey, usernameFreeAttempts, now)) {
+            return false;
+        }
+        if (!reserve(addresses, addressKey(address), addressFreeAttempts, now)) {
+            release(usernames, usernameKey);
+            return false;
+        }
+        return true;
+    }
+
+    boolean isBlocked(String username, String address, long now) {
+        return isBlocked(usernames.get(usernameKey(username)), now)
+                || isBlocked(addresses.get(addressKey(address)), now);
+    }
+
+    void onFailure(String username, String address, long now) {
+        record(usernames, usernameKey(username), usernameFreeAttempts, now);
+        record(addresses, addressKey(address), addressFreeAttempts, now);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.purge-interval-ms:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        purge(usernames, now);
+        purge(addresses, now);
+    }
+
+    private boolean isBlocked(Attempts attempts, long now) {
+        return attempts != null && now < attempts.blockedUntil;
+    }
+
+    // pengecekan dan pemesanan di compute yang sama, jadi request paralel tidak bisa lolos bersama-sama:
+    // sebelum diblokir sisa jatah boleh berjalan bersamaan, setelah jeda selesai hanya satu percobaan sekaligus
+    private boolean reserve(Map<String, Attempts> attempts, String key, int freeAttempts, long now) {
+        if (!hasRoom(attempts, key, now)) {
+            return true;
+        }
+
+        AtomicBoolean reserved = new AtomicBoolean();
+        attempts.compute(key, (k, current) -> {
+            if (current == null) {
+                current = new Attempts();
+            }
+            resetIfStale(current, now);
+
+            int allowed = Math.max(1, freeAttempts - current.failures);
+            if (now >= current.blockedUntil && current.inFlight < allowed) {
+                current.inFlight++;
+                reserved.set(true);
+            }
+            return current;
+        });
+        return reserved.get();
+    }
+
+    private void release(Map<String, Attempts> attempts, String key) {
+        attempts.computeIfPresent(key, (k, current) -> {
+            current.inFlight = Math.max(0, current.inFlight - 1);
+            return current;
+        });
+    }
+
+    private void record(Map<String, Attempts> attempts, String key, int freeAttempts, long now) {
+        if (!hasRoom(attempts, key, now)) {
+            return;
+        }
+
+        attempts.compute(key, (k, current) -> {
+            if (current == null) {
+                current = new Attempts();
+            }
+            resetIfStale(current, now);
+            current.inFlight = Math.max(0, current.inFlight - 1);
+            current.failures++;
+            current.lastFailure = now;
+
+            if (current.failures >= freeAttempts) {
+                int exponent = Math.min(current.failures - freeAttempts, 30);
+                current.blockedUntil = now + Math.min(maxBackoffMillis, baseBackoffMillis << exponent);
+            }
+            return current;
+        });
+    }
+
+    private boolean hasRoom(Map<String, Attempts> attempts, String key, long now) {
+        if (attempts.size() >= maxTracked && !attempts.containsKey(key)) {
+            purge(attempts, now);
+            // memory dibatasi, key baru tidak dicatat (counter IP tetap menahan serangan dari satu sumber)
+            return attempts.size() < maxTracked;
+        }
+        return true;
+    }
+
+    private void resetIfStale(Attempts current, long now) {
+        if (now - current.lastFailure > resetAfterMillis) {
+            current.failures = 0;
+            current.blockedUntil = 0;
+        }
+    }
+
+    private void purge(Map<String, Attempts> attempts, long now) {
+        attempts.values().removeIf(current -> current.inFlight == 0
+                && now >= current.blockedUntil && now - current.lastFailure > resetAfterMillis);
+    }
+
+    private static String usernameKey(String username) {
+        // collation MySQL tidak membedakan huruf besar kecil, jadi counter juga tidak
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String addressKey(String address) {
+        return address != null ? address : UNKNOWN_ADDRESS;
+    }
+
+    private static class Attempts {
+
+        private int failures;
+
+        // percobaan yang sudah lolos pengecekan tapi hasilnya belum dicatat
+        private volatile int inFlight;
+
+        private volatile long lastFailure;
+
+        private volatile long blockedUntil;
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package programmerzamannow.restful.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// memilih implementasi BCrypt untuk verifikasi banyak password sekaligus (batch login).
+// scalar = BCrypt per password, interleaved = InterleavedBCrypt dengan beberapa hash per loop
+@Component
+public class PasswordVerifier {
+
+    public enum Implementation {
+        SCALAR, INTERLEAVED
+    }
+
+    private Implementation implementation;
+
+    public PasswordVerifier(@Value("${security.bcrypt.implementation:scalar}") String implementation) {
+        this.implementation = Implementation.valueOf(implementation.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Implementation getImplementation() {
+        return implementation;
+    }
+
+    // jumlah password yang sebaiknya diberikan dalam satu panggilan checkAll
+    public int batchSize() {
+        return implementation == Implementation.INTERLEAVED ? InterleavedBCrypt.LANES : 1;
+    }
+
+    public void checkAll(String[] passwords, String[] hashes, boolean[] valid, int from, int to) {
+        if (implementation == Implementation.SCALAR) {
+            for (int i = from; i < to; i++) {
+                valid[i] = BCrypt.checkpw(passwords[i], hashes[i]);
+            }
+            return;
+        }
+
+        boolean[] result = InterleavedBCrypt.checkpw(Arrays.copyOfRange(passwords, from, to), Arrays.copyOfRange(hashes, from, to));
+        System.arraycopy(result, 0, valid, from, result.length);
+    }
+
+}
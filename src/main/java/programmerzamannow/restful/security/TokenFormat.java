@@ -0,0 +1,32 @@
+package programmerzamannow.restful.security;
+
+import java.util.UUID;
+
+// token berformat <waktu expired dalam hex>.<uuid>, sehingga token yang sudah expired bisa ditolak tanpa query database.
+// Prefix tidak bisa dipalsukan untuk memperpanjang token, karena database tetap mencocokkan token secara utuh
+public class TokenFormat {
+
+    private static final char SEPARATOR = '.';
+
+    private TokenFormat() {
+    }
+
+    public static String generate(long expiredAt) {
+        return Long.toHexString(expiredAt) + SEPARATOR + UUID.randomUUID();
+    }
+
+    // null kalau token tidak memakai format ini (misal token lama berupa uuid saja)
+    public static Long expiredAt(String token) {
+        int separator = token.indexOf(SEPARATOR);
+        if (separator <= 0 || separator > 16) {
+            return null;
+        }
+
+        try {
+            return Long.parseUnsignedLong(token.substring(0, separator), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
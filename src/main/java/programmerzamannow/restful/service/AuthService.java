@@ -1,16 +1,35 @@
 package programmerzamannow.restful.service;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.UserLoggedOutEvent;
+import programmerzamannow.restful.exception.AuthenticationException;
+import programmerzamannow.restful.exception.TooManyRequestsException;
+import programmerzamannow.restful.model.BatchLoginRequest;
+import programmerzamannow.restful.model.BatchLoginResponse;
 import programmerzamannow.restful.model.LoginUserRequest;
 import programmerzamannow.restful.model.TokenResponse;
 import programmerzamannow.restful.repository.UserRepository;
 import programmerzamannow.restful.security.BCrypt;
-
+import programmerzamannow.restful.security.LoginThrottle;
+import programmerzamannow.restful.security.PasswordVerifier;
+import programmerzamannow.restful.security.TokenFormat;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @Service
 public class AuthService {
@@ -19,31 +38,148 @@ public class AuthService {
 
     private ValidationService validationService;
 
-    public AuthService(UserRepository userRepository, ValidationService validationService) {
+    private TieredCache<User> userTokenCache;
+
+    private LoginThrottle loginThrottle;
+
+    private TransactionTemplate transactionTemplate;
+
+    private PasswordVerifier passwordVerifier;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    // hash dengan cost yang sama seperti password user, dicek saat username tidak ada supaya waktunya tidak berbeda
+    private String dummyHash;
+
+    // BCrypt murni CPU, jadi pool dibatasi sesuai jumlah core
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public AuthService(UserRepository userRepository, ValidationService validationService,
+                       TieredCache<User> userTokenCache, LoginThrottle loginThrottle,
+                       TransactionTemplate transactionTemplate, PasswordVerifier passwordVerifier,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.validationService = validationService;
+        this.userTokenCache = userTokenCache;
+        this.loginThrottle = loginThrottle;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordVerifier = passwordVerifier;
+        this.eventPublisher = eventPublisher;
+        this.dummyHash = BCrypt.hashpw(UUID.randomUUID().toString(), BCrypt.gensalt());
     }
 
-    @Transactional
-    public TokenResponse login(LoginUserRequest request) {
+    // tidak @Transactional: koneksi database tidak ditahan selama BCrypt berjalan
+    public TokenResponse login(LoginUserRequest request, String address) {
         validationService.validate(request);
 
-        User user = userRepository.findById(request.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Username or Password wrong"));
+        // ditolak sebelum query dan hashing, percobaan dipesan supaya request paralel ikut dihitung
+        if (!loginThrottle.tryAcquire(request.getUsername(), address)) {
+            throw TooManyRequestsException.LOGIN_THROTTLED;
+        }
 
-        if (BCrypt.checkpw(request.getPassword(), user.getPassword())){
-            user.setToken(UUID.randomUUID().toString());
+        User user;
+        boolean valid;
+        try {
+            user = userRepository.findById(request.getUsername()).orElse(null);
+            valid = BCrypt.checkpw(request.getPassword(), user != null ? user.getPassword() : dummyHash);
+        } catch (RuntimeException e) {
+            loginThrottle.release(request.getUsername(), address);
+            throw e;
+        }
+        if (user == null || !valid) {
+            loginThrottle.onFailure(request.getUsername(), address);
+            throw AuthenticationException.WRONG_CREDENTIALS;
+        }
+        loginThrottle.onSuccess(request.getUsername(), address);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // token lama langsung tidak berlaku di semua instance
+            if (user.getToken() != null) {
+                userTokenCache.invalidateAfterCommit(user.getToken());
+            }
             user.setTokenExpiredAt(next30Day());
+            user.setToken(TokenFormat.generate(user.getTokenExpiredAt()));
 
             userRepository.save(user);
+        });
+
+        return TokenResponse.builder()
+                .token(user.getToken())
+                .expiredAt(user.getTokenExpiredAt())
+                .build();
+    }
+
+    // endpoint internal untuk gateway (misal migrasi session), throttle login tidak dipakai di sini
+    public List<BatchLoginResponse> loginBatch(BatchLoginRequest request) {
+        validationService.validate(request);
+
+        List<LoginUserRequest> credentials = request.getCredentials();
+        Set<String> usernames = new LinkedHashSet<>();
+        credentials.forEach(credential -> usernames.add(credential.getUsername()));
+
+        // collation MySQL tidak membedakan huruf besar kecil, jadi pencocokan juga tidak
+        Map<String, User> users = new HashMap<>();
+        userRepository.findAllById(usernames).forEach(user -> users.put(key(user.getUsername()), user));
 
-            return TokenResponse.builder()
-                    .token(user.getToken())
-                    .expiredAt(user.getTokenExpiredAt())
-                    .build();
+        String[] passwords = new String[credentials.size()];
+        String[] hashes = new String[credentials.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            User user = users.get(key(credentials.get(i).getUsername()));
+            passwords[i] = credentials.get(i).getPassword();
+            hashes[i] = user != null ? user.getPassword() : dummyHash;
+        }
+        boolean[] valid = new boolean[credentials.size()];
+        pool.invoke(new CheckPasswordsTask(passwordVerifier, passwords, hashes, valid, 0, valid.length));
+
+        Map<String, User> authenticated = new HashMap<>();
+        for (int i = 0; i < valid.length; i++) {
+            String username = key(credentials.get(i).getUsername());
+            if (valid[i] && users.containsKey(username)) {
+                authenticated.put(username, users.get(username));
+            }
         }
 
-        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Username or Password wrong");
+        // satu transaksi untuk semua token baru, update dikirim sebagai JDBC batch
+        Map<String, User> issued = new HashMap<>();
+        if (!authenticated.isEmpty()) {
+            Long expiredAt = next30Day();
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> ids = new ArrayList<>();
+                authenticated.values().forEach(user -> ids.add(user.getUsername()));
+
+                List<User> managed = userRepository.findAllById(ids);
+                for (User user : managed) {
+                    if (user.getToken() != null) {
+                        userTokenCache.invalidateAfterCommit(user.getToken());
+                    }
+                    user.setTokenExpiredAt(expiredAt);
+                    user.setToken(TokenFormat.generate(expiredAt));
+                    issued.put(key(user.getUsername()), user);
+                }
+                userRepository.saveAll(managed);
+            });
+        }
+
+        List<BatchLoginResponse> responses = new ArrayList<>(credentials.size());
+        for (int i = 0; i < valid.length; i++) {
+            String username = credentials.get(i).getUsername();
+            User user = valid[i] ? issued.get(key(username)) : null;
+            responses.add(BatchLoginResponse.builder()
+                    .username(username)
+                    .token(user != null ? user.getToken() : null)
+                    .expiredAt(user != null ? user.getTokenExpiredAt() : null)
+                    .build());
+        }
+        return responses;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
     }
 
     public Long next30Day(){
@@ -51,11 +187,66 @@ public class AuthService {
     }
 
     @Transactional
-    public void logout(User user) {
+    public void logout(User current) {
+        userTokenCache.invalidateAfterCommit(current.getToken());
+        // stream SSE yang dibuka dengan token ini ditutup setelah commit
+        eventPublisher.publishEvent(UserLoggedOutEvent.builder()
+                .username(current.getUsername())
+                .token(current.getToken())
+                .build());
+
+        // current berasal dari cache token tanpa password, simpan lewat entity dari database
+        User user = userRepository.findById(current.getUsername())
+                .orElseThrow(() -> AuthenticationException.LOGIN_REQUIRED);
+        // token yang sudah diganti login lain tidak ikut dihapus
+        if (!current.getToken().equals(user.getToken())) {
+            return;
+        }
         user.setToken(null);
         user.setTokenExpiredAt(null);
 
         userRepository.save(user);
     }
 
+    private static class CheckPasswordsTask extends RecursiveAction {
+
+        private final PasswordVerifier passwordVerifier;
+
+        private final String[] passwords;
+
+        private final String[] hashes;
+
+        private final boolean[] valid;
+
+        private final int from;
+
+        private final int to;
+
+        private CheckPasswordsTask(PasswordVerifier passwordVerifier, String[] passwords, String[] hashes,
+                                   boolean[] valid, int from, int to) {
+            this.passwordVerifier = passwordVerifier;
+            this.passwords = passwords;
+            this.hashes = hashes;
+            this.valid = valid;
+            this.from = from;
+            this.to = to;
+        }
+
+        // satu BCrypt (atau satu kelompok lane interleaved) sudah cukup berat untuk jadi satu task sendiri
+        @Override
+        protected void compute() {
+            int batchSize = passwordVerifier.batchSize();
+            if (to - from > batchSize) {
+                // dipotong di kelipatan batchSize supaya lane interleaved tidak terbuang
+                int middle = from + ((to - from) / batchSize + 1) / 2 * batchSize;
+                invokeAll(new CheckPasswordsTask(passwordVerifier, passwords, hashes, valid, from, middle),
+                        new CheckPasswordsTask(passwordVerifier, passwords, hashes, valid, middle, to));
+                return;
+            }
+
+            passwordVerifier.checkAll(passwords, hashes, valid, from, to);
+        }
+
+    }
+
 }
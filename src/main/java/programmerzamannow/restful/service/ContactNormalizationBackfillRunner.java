@@ -0,0 +1,23 @@
+package programmerzamannow.restful.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "contact.normalize.backfill-on-startup", havingValue = "true")
+public class ContactNormalizationBackfillRunner implements ApplicationRunner {
+
+    private ContactNormalizationService contactNormalizationService;
+
+    public ContactNormalizationBackfillRunner(ContactNormalizationService contactNormalizationService) {
+        this.contactNormalizationService = contactNormalizationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        contactNormalizationService.backfill();
+    }
+
+}
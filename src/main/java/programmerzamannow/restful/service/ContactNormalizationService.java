@@ -0,0 +1,75 @@
+package programmerzamannow.restful.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.search.ContactNormalizer;
+
+import java.util.List;
+
+@Slf4j
+@Service
+public class ContactNormalizationService {
+
+    private ContactRepository contactRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private String defaultCountryCode;
+
+    private int backfillBatchSize;
+
+    public ContactNormalizationService(ContactRepository contactRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${contact.phone.default-country-code:62}") String defaultCountryCode,
+                                       @Value("${contact.normalize.backfill-batch-size:500}") int backfillBatchSize) {
+        this.contactRepository = contactRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultCountryCode = defaultCountryCode;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    public String normalizePhone(String phone) {
+        return ContactNormalizer.phone(phone, defaultCountryCode);
+    }
+
+    public String normalizeEmail(String email) {
+        return ContactNormalizer.email(email);
+    }
+
+    public void normalize(Contact contact) {
+        contact.setPhoneNormalized(normalizePhone(contact.getPhone()));
+        contact.setEmailNormalized(normalizeEmail(contact.getEmail()));
+    }
+
+    // isi kolom normalized untuk data lama, satu transaksi per batch supaya lock tidak ditahan lama
+    public long backfill() {
+        long total = 0;
+        String afterId = "";
+
+        while (true) {
+            String from = afterId;
+            List<Contact> batch = transactionTemplate.execute(status -> {
+                List<Contact> contacts = contactRepository.findNotNormalized(from, PageRequest.of(0, backfillBatchSize));
+                contacts.forEach(this::normalize);
+                contactRepository.saveAll(contacts);
+                return contacts;
+            });
+
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+
+            total += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+            log.info("Normalized {} contacts so far", total);
+        }
+
+        return total;
+    }
+
+}
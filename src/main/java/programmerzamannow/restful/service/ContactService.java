@@ -1,46 +1,124 @@
 package programmerzamannow.restful.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.entity.ContactTombstone;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.exception.InvalidRequestException;
+import programmerzamannow.restful.exception.NotFoundException;
+import programmerzamannow.restful.journal.ContactWriteRecord;
+import programmerzamannow.restful.model.BatchContactResponse;
+import programmerzamannow.restful.model.BatchGetContactRequest;
+import programmerzamannow.restful.model.BulkContactResponse;
+import programmerzamannow.restful.model.BulkDeleteContactRequest;
+import programmerzamannow.restful.model.BulkUpdateContactRequest;
+import programmerzamannow.restful.model.ContactDuplicateResponse;
 import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.model.ContactSyncResponse;
 import programmerzamannow.restful.model.CreateContactRequest;
+import programmerzamannow.restful.model.DeleteContactByFilterRequest;
+import programmerzamannow.restful.model.LookupContactRequest;
+import programmerzamannow.restful.model.ContactSuggestionResponse;
+import programmerzamannow.restful.model.SearchContactRequest;
+import programmerzamannow.restful.model.SuggestContactRequest;
+import programmerzamannow.restful.model.SyncContactRequest;
 import programmerzamannow.restful.model.UpdateContactRequest;
 import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.ContactTombstoneRepository;
+import programmerzamannow.restful.search.ContactDeduplicator;
+import programmerzamannow.restful.search.ContactSearchIndex;
+import programmerzamannow.restful.search.ContactSuggestIndex;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class ContactService {
 
+    private static final int BATCH_CHUNK_SIZE = 100;
+
     private ContactRepository contactRepository;
 
+    private ContactTombstoneRepository contactTombstoneRepository;
+
     private ValidationService validationService;
 
-    public ContactService(ContactRepository contactRepository, ValidationService validationService) {
+    private ContactSearchIndex contactSearchIndex;
+
+    private ContactSuggestIndex contactSuggestIndex;
+
+    private ContactDeduplicator contactDeduplicator;
+
+    private ContactNormalizationService contactNormalizationService;
+
+    private ContactWriteBehindService contactWriteBehindService;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private TieredCache<ContactResponse> contactCache;
+
+    private long syncSafetyLagMillis;
+
+    public ContactService(ContactRepository contactRepository,
+                          ContactTombstoneRepository contactTombstoneRepository,
+                          ValidationService validationService,
+                          ContactSearchIndex contactSearchIndex,
+                          ContactSuggestIndex contactSuggestIndex,
+                          ContactDeduplicator contactDeduplicator,
+                          ContactNormalizationService contactNormalizationService,
+                          ContactWriteBehindService contactWriteBehindService,
+                          ApplicationEventPublisher eventPublisher,
+                          TieredCache<ContactResponse> contactCache,
+                          @Value("${contact.sync.safety-lag-ms:5000}") long syncSafetyLagMillis) {
         this.contactRepository = contactRepository;
+        this.contactTombstoneRepository = contactTombstoneRepository;
         this.validationService = validationService;
+        this.contactSearchIndex = contactSearchIndex;
+        this.contactSuggestIndex = contactSuggestIndex;
+        this.contactDeduplicator = contactDeduplicator;
+        this.contactNormalizationService = contactNormalizationService;
+        this.contactWriteBehindService = contactWriteBehindService;
+        this.eventPublisher = eventPublisher;
+        this.contactCache = contactCache;
+        this.syncSafetyLagMillis = syncSafetyLagMillis;
     }
 
     @Transactional
     public ContactResponse createContact(User user, CreateContactRequest request) {
         validationService.validate(request);
 
+        if (contactWriteBehindService.isEnabled()) {
+            return submitWrite(user, ContactWriteRecord.Operation.CREATE, UUID.randomUUID().toString(),
+                    request.getFirstName(), request.getLastName(), request.getEmail(), request.getPhone());
+        }
+
         Contact contact = new Contact();
         contact.setId(UUID.randomUUID().toString());
         contact.setFirstName(request.getFirstName());
         contact.setLastName(request.getLastName());
         contact.setEmail(request.getEmail());
         contact.setPhone(request.getPhone());
+        contactNormalizationService.normalize(contact);
+        contact.setUpdatedAt(System.currentTimeMillis());
         contact.setUser(user);
 
         contactRepository.save(contact);
 
-        return toContactResponse(contact);
+        ContactResponse response = toContactResponse(contact);
+        publishChanged(user, ContactChangedEvent.Type.CREATED, Collections.singletonList(response));
+        return response;
     }
 
     public ContactResponse toContactResponse(Contact contact){
@@ -55,37 +133,355 @@ public class ContactService {
 
     @Transactional
     public ContactResponse get(User user, String id){
-        Contact contact = contactRepository.findFirstByUserAndId(user, id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        if (contactWriteBehindService.isEnabled()) {
+            ContactResponse pending = contactWriteBehindService.getPending(user, id);
+            if (pending != null) {
+                return pending;
+            }
+        }
+
+        ContactResponse response = contactCache.get(user.getUsername() + ":" + id, () -> contactRepository
+                .findFirstByUserAndId(user, id)
+                .map(this::toContactResponse)
+                .orElse(null));
+        if (response == null) {
+            throw NotFoundException.CONTACT_NOT_FOUND;
+        }
 
-        return toContactResponse(contact);
+        return response;
     }
 
+    @Transactional(readOnly = true)
+    public List<ContactResponse> lookup(User user, LookupContactRequest request) {
+        validationService.validate(request);
+
+        if ((request.getPhone() == null) == (request.getEmail() == null)) {
+            throw InvalidRequestException.PHONE_OR_EMAIL_REQUIRED;
+        }
+
+        List<Contact> contacts = request.getPhone() != null
+                ? contactRepository.findAllByUserAndPhoneNormalized(user, contactNormalizationService.normalizePhone(request.getPhone()))
+                : contactRepository.findAllByUserAndEmailNormalized(user, contactNormalizationService.normalizeEmail(request.getEmail()));
+
+        List<ContactResponse> responses = new ArrayList<>();
+        contacts.forEach(contact -> responses.add(toContactResponse(contact)));
+        return responses;
+    }
+
+    @Transactional(readOnly = true)
+    public BatchContactResponse getAll(User user, BatchGetContactRequest request) {
+        validationService.validate(request);
+
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        Map<String, Contact> found = new HashMap<>();
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            contactRepository.findAllByUserAndIdIn(user, chunk)
+                    .forEach(contact -> found.put(contact.getId(), contact));
+        }
+
+        List<ContactResponse> contacts = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            ContactResponse pending = contactWriteBehindService.isEnabled()
+                    ? contactWriteBehindService.getPending(user, id)
+                    : null;
+            Contact contact = found.get(id);
+            if (pending != null) {
+                contacts.add(pending);
+            } else if (contact != null) {
+                contacts.add(toContactResponse(contact));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        return BatchContactResponse.builder()
+                .contacts(contacts)
+                .missing(missing)
+                .build();
+    }
 
     @Transactional
     public ContactResponse update(User user, UpdateContactRequest request){
 
         validationService.validate(request);
 
+        if (contactWriteBehindService.isEnabled()) {
+            if (contactWriteBehindService.getPending(user, request.getId()) == null) {
+                contactRepository.findFirstByUserAndId(user, request.getId())
+                        .orElseThrow(() -> NotFoundException.CONTACT_NOT_FOUND);
+            }
+            return submitWrite(user, ContactWriteRecord.Operation.UPDATE, request.getId(),
+                    request.getFirstName(), request.getLastName(), request.getEmail(), request.getPhone());
+        }
+
         Contact contact = contactRepository.findFirstByUserAndId(user, request.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+                .orElseThrow(() -> NotFoundException.CONTACT_NOT_FOUND);
 
         contact.setFirstName(request.getFirstName());
         contact.setLastName(request.getLastName());
         contact.setEmail(request.getEmail());
         contact.setPhone(request.getPhone());
+        contactNormalizationService.normalize(contact);
+        contact.setUpdatedAt(System.currentTimeMillis());
 
         contactRepository.save(contact);
 
-        return toContactResponse(contact);
+        ContactResponse response = toContactResponse(contact);
+        publishChanged(user, ContactChangedEvent.Type.UPDATED, Collections.singletonList(response));
+        return response;
     }
 
     @Transactional
     public void delete(User user, String contactId){
+        contactWriteBehindService.flush();
+
         Contact contact = contactRepository.findFirstByUserAndId(user, contactId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+                .orElseThrow(() -> NotFoundException.CONTACT_NOT_FOUND);
 
         contactRepository.delete(contact);
+
+        ContactTombstone tombstone = new ContactTombstone();
+        tombstone.setId(contact.getId());
+        tombstone.setUser(user);
+        tombstone.setDeletedAt(System.currentTimeMillis());
+
+        contactTombstoneRepository.save(tombstone);
+
+        publishDeleted(user, Collections.singletonList(contact.getId()));
+    }
+
+    @Transactional
+    public BulkContactResponse bulkUpdate(User user, BulkUpdateContactRequest request) {
+        validationService.validate(request);
+
+        if (request.getFirstName() == null && request.getLastName() == null
+                && request.getEmail() == null && request.getPhone() == null) {
+            throw InvalidRequestException.NO_FIELD_TO_UPDATE;
+        }
+
+        contactWriteBehindService.flush();
+
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        long updatedAt = System.currentTimeMillis();
+        int affected = 0;
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            affected += contactRepository.updateAllByUserAndIdIn(user, chunk,
+                    request.getFirstName(), request.getLastName(), request.getEmail(), request.getPhone(),
+                    contactNormalizationService.normalizePhone(request.getPhone()),
+                    contactNormalizationService.normalizeEmail(request.getEmail()),
+                    updatedAt);
+
+            List<ContactResponse> updated = new ArrayList<>();
+            contactRepository.findAllByUserAndIdIn(user, chunk).forEach(contact -> updated.add(toContactResponse(contact)));
+            publishChanged(user, ContactChangedEvent.Type.UPDATED, updated);
+        }
+
+        return BulkContactResponse.builder().affected(affected).build();
+    }
+
+    @Transactional
+    public BulkContactResponse bulkDelete(User user, BulkDeleteContactRequest request) {
+        validationService.validate(request);
+
+        contactWriteBehindService.flush();
+
+        int affected = deleteAll(user, new ArrayList<>(new LinkedHashSet<>(request.getIds())));
+        return BulkContactResponse.builder().affected(affected).build();
+    }
+
+    @Transactional
+    public BulkContactResponse deleteByFilter(User user, DeleteContactByFilterRequest request) {
+        validationService.validate(request);
+
+        if (request.getName() == null && request.getEmail() == null && request.getPhone() == null) {
+            throw InvalidRequestException.FILTER_REQUIRED;
+        }
+
+        contactWriteBehindService.flush();
+
+        String name = toLikePattern(request.getName());
+        String email = toLikePattern(request.getEmail());
+        String phone = toLikePattern(request.getPhone());
+        PageRequest page = PageRequest.of(0, BATCH_CHUNK_SIZE);
+
+        // id diambil per halaman dengan keyset (id > id terakhir), filter yang luas tidak memuat semua id sekaligus
+        long deletedAt = System.currentTimeMillis();
+        int affected = 0;
+        String lastId = "";
+        while (true) {
+            List<String> chunk = contactRepository.findIdsByFilter(user, name, email, phone, lastId, page);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            affected += deleteChunk(user, chunk, deletedAt);
+            if (chunk.size() < BATCH_CHUNK_SIZE) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1);
+        }
+
+        return BulkContactResponse.builder().affected(affected).build();
+    }
+
+    private int deleteAll(User user, List<String> ids) {
+        long deletedAt = System.currentTimeMillis();
+        int affected = 0;
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            affected += deleteChunk(user, ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size())), deletedAt);
+        }
+
+        return affected;
+    }
+
+    private int deleteChunk(User user, List<String> chunk, long deletedAt) {
+        contactTombstoneRepository.insertForContacts(user.getUsername(), chunk, deletedAt);
+        int affected = contactRepository.deleteAllByUserAndIdIn(user, chunk);
+
+        publishDeleted(user, new ArrayList<>(chunk));
+        return affected;
+    }
+
+    private ContactResponse submitWrite(User user, ContactWriteRecord.Operation operation, String id,
+                                        String firstName, String lastName, String email, String phone) {
+        ContactWriteRecord record = ContactWriteRecord.builder()
+                .operation(operation)
+                .username(user.getUsername())
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .updatedAt(System.currentTimeMillis())
+                .build();
+
+        contactWriteBehindService.submit(record);
+
+        return ContactResponse.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .build();
+    }
+
+    private void publishChanged(User user, ContactChangedEvent.Type type, List<ContactResponse> contacts) {
+        List<String> ids = new ArrayList<>();
+        contacts.forEach(contact -> ids.add(contact.getId()));
+
+        eventPublisher.publishEvent(ContactChangedEvent.builder()
+                .username(user.getUsername())
+                .type(type)
+                .ids(ids)
+                .contacts(contacts)
+                .build());
+    }
+
+    private void publishDeleted(User user, List<String> ids) {
+        eventPublisher.publishEvent(ContactChangedEvent.builder()
+                .username(user.getUsername())
+                .type(ContactChangedEvent.Type.DELETED)
+                .ids(ids)
+                .contacts(Collections.emptyList())
+                .build());
+    }
+
+    // % dan _ dari input dicari sebagai karakter biasa, kalau tidak filter "%" akan menghapus semua contact.
+    // Escape memakai ! karena backslash di literal SQL MySQL juga dianggap escape
+    private static String toLikePattern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        StringBuilder pattern = new StringBuilder(value.length() + 4).append('%');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == '!') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    public List<ContactResponse> search(User user, SearchContactRequest request) {
+        validationService.validate(request);
+
+        return contactSearchIndex.search(user, request.getQuery(), request.getSize());
+    }
+
+    public List<ContactSuggestionResponse> suggest(User user, SuggestContactRequest request) {
+        validationService.validate(request);
+
+        return contactSuggestIndex.suggest(user, request.getQuery(), request.getSize());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContactDuplicateResponse> findDuplicates(User user) {
+        List<ContactResponse> contacts = new ArrayList<>();
+        contactRepository.findAllByUser(user).forEach(contact -> contacts.add(toContactResponse(contact)));
+
+        return contactDeduplicator.findDuplicates(contacts);
+    }
+
+    @Transactional(readOnly = true)
+    public ContactSyncResponse sync(User user, SyncContactRequest request) {
+        validationService.validate(request);
+
+        // ambil size + 1 dari masing-masing tabel supaya tahu masih ada halaman berikutnya atau tidak
+        PageRequest limit = PageRequest.of(0, request.getSize() + 1);
+        // updated_at diisi jam aplikasi sebelum commit, transaksi yang commit terlambat bisa punya timestamp lebih kecil
+        // dari watermark client. Perubahan yang lebih baru dari safety lag belum dikirim, jadi watermark tidak pernah
+        // melewati transaksi yang belum commit (asal transaksi selesai dalam waktu safety lag)
+        long until = System.currentTimeMillis() - syncSafetyLagMillis;
+        List<Contact> changed = contactRepository.findChangedSince(user, request.getSince(), request.getSinceId(), until, limit);
+        List<ContactTombstone> deleted = contactTombstoneRepository.findDeletedSince(user, request.getSince(), request.getSinceId(), until, limit);
+
+        List<ContactResponse> changedResponses = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        long watermark = request.getSince();
+        String watermarkId = request.getSinceId();
+
+        int c = 0;
+        int d = 0;
+        while (changedResponses.size() + deletedIds.size() < request.getSize()
+                && (c < changed.size() || d < deleted.size())) {
+            boolean takeChanged = d >= deleted.size() || (c < changed.size()
+                    && compareWatermark(changed.get(c).getUpdatedAt(), changed.get(c).getId(),
+                    deleted.get(d).getDeletedAt(), deleted.get(d).getId()) <= 0);
+
+            if (takeChanged) {
+                Contact contact = changed.get(c++);
+                changedResponses.add(toContactResponse(contact));
+                watermark = contact.getUpdatedAt();
+                watermarkId = contact.getId();
+            } else {
+                ContactTombstone tombstone = deleted.get(d++);
+                deletedIds.add(tombstone.getId());
+                watermark = tombstone.getDeletedAt();
+                watermarkId = tombstone.getId();
+            }
+        }
+
+        return ContactSyncResponse.builder()
+                .changed(changedResponses)
+                .deleted(deletedIds)
+                .watermark(watermark)
+                .watermarkId(watermarkId)
+                .hasMore(c < changed.size() || d < deleted.size())
+                .build();
+    }
+
+    private int compareWatermark(Long time1, String id1, Long time2, String id2) {
+        int result = Long.compare(time1, time2);
+        return result != 0 ? result : id1.compareTo(id2);
     }
 
 }
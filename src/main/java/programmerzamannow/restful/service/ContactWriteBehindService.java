@@ -0,0 +1,443 @@
+package programmerzamannow.restful.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.exception.UnavailableException;
+import programmerzamannow.restful.journal.ContactJournal;
+import programmerzamannow.restful.journal.ContactWriteRecord;
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class ContactWriteBehindService {
+
+    private ContactRepository contactRepository;
+
+    private ContactNormalizationService contactNormalizationService;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private ObjectMapper objectMapper;
+
+    private boolean enabled;
+
+    private String journalDirectory;
+
+    private int batchSize;
+
+    private long flushIntervalMillis;
+
+    private int segmentBytes;
+
+    private long maxRetryDelayMillis;
+
+    private long flushTimeoutMillis;
+
+    private ContactJournal journal;
+
+    private Path deadLetterFile;
+
+    private final BlockingQueue<ContactWriteRecord> queue = new LinkedBlockingQueue<>();
+
+    // state terakhir contact yang belum masuk database, supaya read tetap melihat write yang pending
+    private final Map<String, ContactWriteRecord> pending = new ConcurrentHashMap<>();
+
+    // record yang sudah ditulis ke journal tapi belum pasti durable, baru masuk queue setelah fsync berhasil
+    private final TreeMap<Long, ContactWriteRecord> syncing = new TreeMap<>();
+
+    private final Object appliedLock = new Object();
+
+    // sequence terakhir yang ditulis ke journal
+    private long sequence;
+
+    // sequence terakhir yang sudah durable dan masuk queue, target flush()
+    private long ackedSequence;
+
+    private long appliedSequence;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    public ContactWriteBehindService(ContactRepository contactRepository,
+                                     ContactNormalizationService contactNormalizationService,
+                                     EntityManager entityManager,
+                                     TransactionTemplate transactionTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     ObjectMapper objectMapper,
+                                     @Value("${contact.write-behind.enabled:false}") boolean enabled,
+                                     @Value("${contact.write-behind.journal-dir:data/journal}") String journalDirectory,
+                                     @Value("${contact.write-behind.batch-size:200}") int batchSize,
+                                     @Value("${contact.write-behind.flush-interval-ms:20}") long flushIntervalMillis,
+                                     @Value("${contact.write-behind.segment-bytes:16777216}") int segmentBytes,
+                                     @Value("${contact.write-behind.max-retry-delay-ms:5000}") long maxRetryDelayMillis,
+                                     @Value("${contact.write-behind.flush-timeout-ms:10000}") long flushTimeoutMillis) {
+        this.contactRepository = contactRepository;
+        this.contactNormalizationService = contactNormalizationService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.journalDirectory = journalDirectory;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.segmentBytes = segmentBytes;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+        this.flushTimeoutMillis = flushTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        journal = new ContactJournal(Paths.get(journalDirectory), segmentBytes);
+        deadLetterFile = Paths.get(journalDirectory, "dead-letter.jsonl");
+        for (byte[] payload : journal.readPending()) {
+            ContactWriteRecord record = objectMapper.readValue(payload, ContactWriteRecord.class);
+            queue.add(record);
+            pending.put(record.getId(), record);
+        }
+        sequence = journal.lastSequence();
+        ackedSequence = sequence;
+        appliedSequence = queue.isEmpty() ? sequence : queue.peek().getSequence() - 1;
+        log.info("Write-behind journal opened with {} pending contact writes", queue.size());
+
+        running = true;
+        writer = new Thread(this::writeLoop, "contact-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // request baru di-ack setelah record durable di journal, database ditulis belakangan oleh writer.
+    // Record yang gagal ditulis atau di-fsync tidak pernah masuk queue, jadi client yang menerima 503 tidak melihat
+    // write-nya diterapkan dan flush() tidak menunggu sequence yang tidak akan pernah ditulis
+    public void submit(ContactWriteRecord record) {
+        long position;
+        try {
+            synchronized (this) {
+                // sequence baru dipakai setelah frame berhasil ditulis
+                record.setSequence(sequence + 1);
+                position = journal.write(record.getSequence(), objectMapper.writeValueAsBytes(record));
+                sequence = record.getSequence();
+                syncing.put(sequence, record);
+            }
+        } catch (IOException e) {
+            log.error("Failed to append contact write to journal", e);
+            throw UnavailableException.JOURNAL_UNAVAILABLE;
+        }
+
+        try {
+            journal.sync(position);
+        } catch (IOException e) {
+            synchronized (this) {
+                // null: fsync thread lain sudah mencakup posisi ini, record sudah durable dan masuk queue
+                if (syncing.remove(record.getSequence()) != null) {
+                    // frame tetap ada di file dan bisa ikut di-replay setelah restart, 503 berarti hasilnya tidak pasti
+                    log.error("Failed to sync contact write to journal", e);
+                    throw UnavailableException.JOURNAL_UNAVAILABLE;
+                }
+            }
+            return;
+        }
+
+        synchronized (this) {
+            // fsync sampai posisi ini juga mencakup semua frame sebelumnya, semuanya masuk queue sesuai urutan sequence
+            NavigableMap<Long, ContactWriteRecord> synced = syncing.headMap(record.getSequence(), true);
+            for (ContactWriteRecord durable : synced.values()) {
+                pending.put(durable.getId(), durable);
+                queue.add(durable);
+                ackedSequence = durable.getSequence();
+            }
+            synced.clear();
+        }
+    }
+
+    public ContactResponse getPending(User user, String id) {
+        ContactWriteRecord record = pending.get(id);
+        if (record == null || !record.getUsername().equals(user.getUsername())) {
+            return null;
+        }
+        return toContactResponse(record);
+    }
+
+    // menunggu sampai semua write yang sudah di-ack masuk database, dipakai sebelum operasi yang butuh data lengkap.
+    // Dibatasi flush-timeout-ms, selama database down request langsung 503 dan tidak menahan thread Tomcat
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        long target;
+        synchronized (this) {
+            target = ackedSequence;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushTimeoutMillis);
+        synchronized (appliedLock) {
+            while (appliedSequence < target) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw UnavailableException.FLUSH_TIMEOUT;
+                }
+                try {
+                    appliedLock.wait(Math.min(flushIntervalMillis, remainingMillis));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw UnavailableException.FLUSH_INTERRUPTED;
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<ContactWriteRecord> batch = new ArrayList<>(batchSize);
+        long retryDelay = 0;
+
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    ContactWriteRecord first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+
+                try {
+                    apply(batch);
+                } catch (RuntimeException e) {
+                    if (isTransient(e)) {
+                        throw e;
+                    }
+                    // error permanen (constraint, data terlalu panjang) tidak akan sembuh dengan retry,
+                    // batch diterapkan satu per satu supaya hanya record yang rusak yang dipindah ke dead-letter
+                    log.warn("Failed to apply {} contact writes, applying them one by one", batch.size(), e);
+                    applyIndividually(batch);
+                }
+                batch.clear();
+
+                if (retryDelay > 0) {
+                    log.info("Database is reachable again, {} contact writes still queued", queue.size());
+                    retryDelay = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                // error sementara (koneksi putus, deadlock, journal): write tetap di journal dan dicoba lagi dengan backoff
+                if (retryDelay == 0) {
+                    log.warn("Failed to apply {} contact writes, retrying until the database is back", batch.size(), e);
+                }
+                retryDelay = Math.min(Math.max(retryDelay * 2, flushIntervalMillis), maxRetryDelayMillis);
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(List<ContactWriteRecord> batch) throws IOException {
+        transactionTemplate.executeWithoutResult(status -> {
+            // setelah crash, create yang sudah sempat masuk database bisa ikut di-replay, jadi diperlakukan sebagai update
+            List<String> ids = new ArrayList<>();
+            batch.forEach(record -> ids.add(record.getId()));
+            Map<String, Contact> existing = new HashMap<>();
+            contactRepository.findAllById(ids).forEach(contact -> existing.put(contact.getId(), contact));
+
+            Map<String, List<ContactResponse>> changed = new LinkedHashMap<>();
+            for (ContactWriteRecord record : batch) {
+                Contact contact = existing.get(record.getId());
+                if (contact == null && record.getOperation() == ContactWriteRecord.Operation.UPDATE) {
+                    // contact sudah dihapus sebelum update sempat ditulis
+                    continue;
+                }
+
+                if (contact == null) {
+                    contact = new Contact();
+                    contact.setId(record.getId());
+                    contact.setUser(entityManager.getReference(User.class, record.getUsername()));
+                    existing.put(contact.getId(), contact);
+                    applyFields(contact, record);
+                    entityManager.persist(contact);
+                } else {
+                    applyFields(contact, record);
+                }
+
+                changed.computeIfAbsent(record.getOperation() + ":" + record.getUsername(), key -> new ArrayList<>())
+                        .add(toContactResponse(record));
+            }
+
+            changed.forEach((key, contacts) -> {
+                List<String> changedIds = new ArrayList<>();
+                contacts.forEach(contact -> changedIds.add(contact.getId()));
+                eventPublisher.publishEvent(ContactChangedEvent.builder()
+                        .username(key.substring(key.indexOf(':') + 1))
+                        .type(key.startsWith(ContactWriteRecord.Operation.CREATE.name())
+                                ? ContactChangedEvent.Type.CREATED
+                                : ContactChangedEvent.Type.UPDATED)
+                        .ids(changedIds)
+                        .contacts(contacts)
+                        .build());
+            });
+        });
+
+        markApplied(batch);
+    }
+
+    // record yang berhasil dikeluarkan dari batch, sisa batch tetap ada kalau berhenti karena error sementara
+    private void applyIndividually(List<ContactWriteRecord> batch) throws IOException {
+        Iterator<ContactWriteRecord> iterator = batch.iterator();
+        while (iterator.hasNext()) {
+            ContactWriteRecord record = iterator.next();
+            try {
+                apply(Collections.singletonList(record));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                deadLetter(record, e);
+            }
+            iterator.remove();
+        }
+    }
+
+    // record disimpan ke dead-letter.jsonl untuk diperiksa manual, lalu dianggap selesai supaya write berikutnya jalan
+    private void deadLetter(ContactWriteRecord record, RuntimeException error) throws IOException {
+        log.error("Moving contact write {} (sequence {}) to dead-letter", record.getId(), record.getSequence(), error);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("error", String.valueOf(NestedExceptionUtils.getMostSpecificCause(error)));
+        entry.put("record", record);
+        byte[] line = objectMapper.writeValueAsBytes(entry);
+        try (OutputStream output = Files.newOutputStream(deadLetterFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            output.write(line);
+            output.write('\n');
+        }
+
+        markApplied(Collections.singletonList(record));
+    }
+
+    private void markApplied(List<ContactWriteRecord> batch) throws IOException {
+        long lastSequence = batch.get(batch.size() - 1).getSequence();
+        for (ContactWriteRecord record : batch) {
+            pending.remove(record.getId(), record);
+        }
+        journal.markApplied(lastSequence);
+
+        synchronized (appliedLock) {
+            appliedSequence = lastSequence;
+            appliedLock.notifyAll();
+        }
+    }
+
+    // koneksi gagal, pool habis, deadlock / lock wait timeout: database akan pulih sendiri, jadi aman di-retry
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            // SQLState kelas 08: connection exception
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null
+                    && ((SQLException) cause).getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applyFields(Contact contact, ContactWriteRecord record) {
+        contact.setFirstName(record.getFirstName());
+        contact.setLastName(record.getLastName());
+        contact.setEmail(record.getEmail());
+        contact.setPhone(record.getPhone());
+        // waktu saat ditulis ke database, bukan saat submit: batch bisa tertahan lama selama database down
+        // dan timestamp submit akan jauh di belakang watermark sync client
+        contact.setUpdatedAt(System.currentTimeMillis());
+        contactNormalizationService.normalize(contact);
+    }
+
+    private ContactResponse toContactResponse(ContactWriteRecord record) {
+        return ContactResponse.builder()
+                .id(record.getId())
+                .firstName(record.getFirstName())
+                .lastName(record.getLastName())
+                .email(record.getEmail())
+                .phone(record.getPhone())
+                .build();
+    }
+
+}
@@ -0,0 +1,67 @@
+package programmerzamannow.restful.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.repository.UserRepository;
+
+// mengosongkan token yang sudah expired sedikit demi sedikit, supaya index token tidak penuh token mati
+// dan update besar tidak mengunci banyak baris users sekaligus
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.token-sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenSweeper {
+
+    private UserRepository userRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int batchSize;
+
+    private long pauseMillis;
+
+    public TokenSweeper(UserRepository userRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${auth.token-sweeper.batch-size:500}") int batchSize,
+                        @Value("${auth.token-sweeper.pause-ms:200}") long pauseMillis) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${auth.token-sweeper.interval-ms:600000}",
+            fixedDelayString = "${auth.token-sweeper.interval-ms:600000}")
+    public int sweep() {
+        long now = System.currentTimeMillis();
+        int total = 0;
+
+        while (true) {
+            // satu transaksi per chunk
+            Integer cleared = transactionTemplate.execute(status -> userRepository.clearExpiredTokens(now, batchSize));
+            if (cleared == null || cleared == 0) {
+                break;
+            }
+            total += cleared;
+            if (cleared < batchSize) {
+                break;
+            }
+
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Cleared {} expired tokens", total);
+        }
+        return total;
+    }
+
+}
@@ -1,10 +1,13 @@
 package programmerzamannow.restful.service;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.UserChangedEvent;
+import programmerzamannow.restful.exception.AuthenticationException;
+import programmerzamannow.restful.exception.InvalidRequestException;
 import programmerzamannow.restful.model.RegisterUserRequest;
 import programmerzamannow.restful.model.UpdateUserRequest;
 import programmerzamannow.restful.model.UserResponse;
@@ -18,9 +21,16 @@ public class UserService {
 
     private ValidationService validationService;
 
-    public UserService(UserRepository userRepository, ValidationService validationService) {
+    private ApplicationEventPublisher eventPublisher;
+
+    private TieredCache<User> userTokenCache;
+
+    public UserService(UserRepository userRepository, ValidationService validationService,
+                       ApplicationEventPublisher eventPublisher, TieredCache<User> userTokenCache) {
         this.userRepository = userRepository;
         this.validationService = validationService;
+        this.eventPublisher = eventPublisher;
+        this.userTokenCache = userTokenCache;
     }
 
     @Transactional
@@ -29,7 +39,7 @@ public class UserService {
         validationService.validate(request);
 
         if (userRepository.existsById(request.getUsername())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Username already registered");
+            throw InvalidRequestException.USERNAME_ALREADY_REGISTERED;
         }
 
         User user = new User();
@@ -38,6 +48,12 @@ public class UserService {
         user.setName(request.getName());
 
         userRepository.save(user);
+
+        eventPublisher.publishEvent(UserChangedEvent.builder()
+                .username(user.getUsername())
+                .type(UserChangedEvent.Type.REGISTERED)
+                .name(user.getName())
+                .build());
     }
 
     @Transactional
@@ -49,7 +65,11 @@ public class UserService {
     }
 
     @Transactional
-    public UserResponse update(User user, UpdateUserRequest request) {
+    public UserResponse update(User current, UpdateUserRequest request) {
+        // current berasal dari cache token tanpa password, simpan lewat entity dari database
+        User user = userRepository.findById(current.getUsername())
+                .orElseThrow(() -> AuthenticationException.LOGIN_REQUIRED);
+
         if (request.getName() != null) {
             user.setName(request.getName());
         }
@@ -59,6 +79,16 @@ public class UserService {
         }
 
         userRepository.save(user);
+        if (user.getToken() != null) {
+            userTokenCache.invalidateAfterCommit(user.getToken());
+        }
+
+        eventPublisher.publishEvent(UserChangedEvent.builder()
+                .username(user.getUsername())
+                .type(UserChangedEvent.Type.UPDATED)
+                .name(user.getName())
+                .passwordChanged(request.getPassword() != null)
+                .build());
 
         return UserResponse.builder()
                 .username(user.getUsername())
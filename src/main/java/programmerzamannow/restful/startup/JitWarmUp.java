@@ -0,0 +1,177 @@
+package programmerzamannow.restful.startup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.model.CreateContactRequest;
+import programmerzamannow.restful.model.LoginUserRequest;
+import programmerzamannow.restful.model.RegisterUserRequest;
+import programmerzamannow.restful.model.TokenResponse;
+import programmerzamannow.restful.model.UserResponse;
+import programmerzamannow.restful.model.WebResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.UserRepository;
+import programmerzamannow.restful.security.BCrypt;
+import programmerzamannow.restful.service.ValidationService;
+
+import javax.validation.ConstraintViolationException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// menjalankan jalur yang sama dengan request biasa berulang kali sebelum readiness, supaya JIT sudah meng-compile
+// BCrypt, validasi, serializer Jackson dan query plan Hibernate. Semua query hanya membaca data dengan key yang tidak ada
+@Slf4j
+@Component
+public class JitWarmUp {
+
+    private static final String WARM_UP_KEY = "warm-up";
+
+    private ValidationService validationService;
+
+    private ObjectMapper objectMapper;
+
+    private UserRepository userRepository;
+
+    private ContactRepository contactRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int iterations;
+
+    private int bcryptIterations;
+
+    private int repositoryIterations;
+
+    public JitWarmUp(ValidationService validationService,
+                     ObjectMapper objectMapper,
+                     UserRepository userRepository,
+                     ContactRepository contactRepository,
+                     TransactionTemplate transactionTemplate,
+                     @Value("${startup.warm-up.iterations:2000}") int iterations,
+                     @Value("${startup.warm-up.bcrypt-iterations:10}") int bcryptIterations,
+                     @Value("${startup.warm-up.repository-iterations:200}") int repositoryIterations) {
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.contactRepository = contactRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.iterations = iterations;
+        this.bcryptIterations = bcryptIterations;
+        this.repositoryIterations = repositoryIterations;
+    }
+
+    // hasil per langkah: jumlah iterasi, durasi dan p50 10% iterasi pertama dibanding 10% terakhir
+    public Map<String, Object> run() {
+        Map<String, Object> report = new LinkedHashMap<>();
+
+        // cost sama dengan password user (gensalt default)
+        String hash = BCrypt.hashpw(WARM_UP_KEY, BCrypt.gensalt());
+        report.put("bcrypt", measure("bcrypt", bcryptIterations, () -> BCrypt.checkpw(WARM_UP_KEY, hash)));
+
+        CreateContactRequest contact = new CreateContactRequest("Warm", "Up", "warm.up@example.com", "08123456789");
+        RegisterUserRequest register = new RegisterUserRequest(WARM_UP_KEY, "rahasia", "Warm Up");
+        LoginUserRequest invalid = new LoginUserRequest("", "");
+        report.put("validation", measure("validation", iterations, () -> {
+            validationService.validate(contact);
+            validationService.validate(register);
+            try {
+                validationService.validate(invalid);
+            } catch (ConstraintViolationException e) {
+                // jalur error juga dipakai oleh request yang tidak valid
+            }
+        }));
+
+        List<ContactResponse> contacts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            contacts.add(ContactResponse.builder()
+                    .id(WARM_UP_KEY + i)
+                    .firstName("Warm")
+                    .lastName("Up " + i)
+                    .email("warm.up@example.com")
+                    .phone("08123456789")
+                    .build());
+        }
+        String loginBody = "{\"username\":\"" + WARM_UP_KEY + "\",\"password\":\"rahasia\"}";
+        report.put("json", measure("json", iterations, () -> {
+            try {
+                objectMapper.writeValueAsBytes(WebResponse.<List<ContactResponse>>builder().data(contacts).build());
+                objectMapper.writeValueAsBytes(WebResponse.<UserResponse>builder()
+                        .data(UserResponse.builder().username(WARM_UP_KEY).name("Warm Up").build()).build());
+                objectMapper.writeValueAsBytes(WebResponse.<TokenResponse>builder()
+                        .data(TokenResponse.builder().token(WARM_UP_KEY).expiredAt(System.currentTimeMillis()).build()).build());
+                objectMapper.writeValueAsBytes(WebResponse.<String>builder().errors("Unauthorized").build());
+                objectMapper.readValue(loginBody, LoginUserRequest.class);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+
+        List<String> ids = List.of(WARM_UP_KEY + 1, WARM_UP_KEY + 2);
+        report.put("repository", measure("repository", repositoryIterations, () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    // reference tidak memicu query, cukup untuk parameter entity
+                    User user = userRepository.getReferenceById(WARM_UP_KEY);
+                    userRepository.findById(WARM_UP_KEY);
+                    userRepository.findFirstByToken(WARM_UP_KEY);
+                    contactRepository.findFirstByUserAndId(user, WARM_UP_KEY);
+                    contactRepository.findAllByUser(user);
+                    contactRepository.findAllByUserAndIdIn(user, ids);
+                    contactRepository.findChangedSince(user, 0L, "", Long.MAX_VALUE, PageRequest.of(0, 10));
+                    contactRepository.findIdsByFilter(user, "%" + WARM_UP_KEY + "%", null, null, "", PageRequest.of(0, 10));
+                    status.setRollbackOnly();
+                })));
+
+        return report;
+    }
+
+    private Map<String, Object> measure(String step, int count, Runnable action) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("iterations", count);
+        if (count <= 0) {
+            return result;
+        }
+
+        long[] nanos = new long[count];
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < count; i++) {
+                long begin = System.nanoTime();
+                action.run();
+                nanos[i] = System.nanoTime() - begin;
+            }
+        } catch (RuntimeException e) {
+            // misal database belum bisa diakses, langkah lain tetap dijalankan
+            log.warn("Warm-up {} failed: {}", step, e.getMessage());
+            result.put("error", e.getMessage());
+            return result;
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+
+        int sample = Math.max(1, count / 10);
+        long before = median(nanos, 0, sample) / 1_000;
+        long after = median(nanos, count - sample, count) / 1_000;
+        log.info("Warm-up {}: {} iterations in {} ms, p50 {} us -> {} us", step, count, durationMillis, before, after);
+
+        result.put("durationMs", durationMillis);
+        result.put("p50BeforeMicros", before);
+        result.put("p50AfterMicros", after);
+        return result;
+    }
+
+    static long median(long[] values, int from, int to) {
+        long[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+}
@@ -0,0 +1,151 @@
+package programmerzamannow.restful.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// dipakai di profile fast-start: aplikasi sudah listen sebelum semua bean dibuat, lalu thread ini menyelesaikan
+// bootstrap Hibernate, membuka koneksi minimum-idle, membuat bean lazy yang tersisa dan menjalankan JitWarmUp.
+// Health "startupWarmUp" OUT_OF_SERVICE sampai selesai, jadi readiness probe baru lolos setelah tidak ada cold start lagi
+@Slf4j
+@Component
+public class StartupWarmUp implements HealthIndicator {
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private DataSource dataSource;
+
+    private ObjectProvider<JitWarmUp> jitWarmUp;
+
+    private boolean enabled;
+
+    private volatile boolean done;
+
+    private volatile Map<String, Object> report = new LinkedHashMap<>();
+
+    public StartupWarmUp(ConfigurableListableBeanFactory beanFactory,
+                         EntityManagerFactory entityManagerFactory,
+                         DataSource dataSource,
+                         ObjectProvider<JitWarmUp> jitWarmUp,
+                         @Value("${startup.warm-up.enabled:false}") boolean enabled) {
+        this.beanFactory = beanFactory;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.jitWarmUp = jitWarmUp;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        Thread warmUp = new Thread(this::warmUp, "startup-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled || done) {
+            return Health.up().withDetails(report).build();
+        }
+        return Health.outOfService().withDetail("warmUp", "in progress").build();
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            // menunggu EntityManagerFactory yang dibangun di background (bootstrap-mode lazy)
+            int entities = entityManagerFactory.getMetamodel().getEntities().size();
+            int connections = 0;
+            try {
+                connections = warmUpPool();
+            } catch (SQLException | RuntimeException e) {
+                // database belum bisa diakses, bean tetap dibuat dan request berikutnya membuka koneksi sendiri
+                log.warn("Failed to warm up connection pool", e);
+            }
+            int beans = createLazyBeans();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("entities", entities);
+            result.put("connections", connections);
+            result.put("lazyBeans", beans);
+            // dibuat lewat ObjectProvider supaya validator dan repository tidak ikut dibuat saat start
+            result.putAll(jitWarmUp.getObject().run());
+
+            long duration = System.currentTimeMillis() - start;
+            result.put("durationMs", duration);
+            report = result;
+            log.info("Startup warm-up finished in {} ms: {} entities, {} connections, {} lazy beans",
+                    duration, entities, connections, beans);
+        } catch (RuntimeException e) {
+            // tetap ready, bagian yang belum selesai dibuat saat pertama dipakai
+            log.warn("Startup warm-up failed after {} ms", System.currentTimeMillis() - start, e);
+        } finally {
+            done = true;
+        }
+    }
+
+    // koneksi dipinjam sekaligus lalu dikembalikan, supaya pool sudah berisi minimum-idle koneksi yang valid
+    private int warmUpPool() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return 0;
+        }
+
+        int minimumIdle = dataSource.unwrap(HikariDataSource.class).getMinimumIdle();
+        List<Connection> connections = new ArrayList<>(minimumIdle);
+        try {
+            for (int i = 0; i < minimumIdle; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    private int createLazyBeans() {
+        int count = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (!definition.isSingleton() || definition.isAbstract() || !definition.isLazyInit()) {
+                continue;
+            }
+
+            try {
+                beanFactory.getBean(name);
+                count++;
+            } catch (BeansException e) {
+                // bean yang gagal akan gagal lagi saat dipakai, error aslinya muncul di request tersebut
+                log.warn("Failed to create lazy bean {} during warm-up: {}", name, e.getMessage());
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,287 @@
+package programmerzamannow.restful.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import programmerzamannow.restful.cache.TieredCache;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.event.UserLoggedOutEvent;
+import programmerzamannow.restful.exception.TooManyRequestsException;
+import programmerzamannow.restful.repository.UserRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// menyebarkan perubahan contact ke semua stream SSE milik user.
+// Listener hanya memasukkan pesan ke antrian per koneksi, pengiriman ke socket dilakukan SseSender,
+// jadi commit transaksi tidak pernah menunggu client yang lambat dan client yang macet tidak menahan client lain.
+// Stream hanya hidup selama token yang dipakai membukanya masih berlaku: dicek ulang setiap heartbeat,
+// ditutup saat logout dan timeout-nya tidak melewati waktu expired token
+@Slf4j
+@Component
+public class ContactStreamHub {
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private ObjectMapper objectMapper;
+
+    private UserRepository userRepository;
+
+    private TieredCache<User> userTokenCache;
+
+    private long timeoutMillis;
+
+    private int bufferSize;
+
+    private int maxConnectionsPerUser;
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final SseSender sender;
+
+    private final ScheduledExecutorService heartbeat;
+
+    public ContactStreamHub(ObjectMapper objectMapper,
+                            UserRepository userRepository,
+                            TieredCache<User> userTokenCache,
+                            @Value("${contact.stream.timeout-ms:3600000}") long timeoutMillis,
+                            @Value("${contact.stream.buffer-size:64}") int bufferSize,
+                            @Value("${contact.stream.max-connections-per-user:10}") int maxConnectionsPerUser,
+                            @Value("${contact.stream.sender-threads:4}") int senderThreads,
+                            @Value("${contact.stream.send-timeout-ms:5000}") long sendTimeoutMillis,
+                            @Value("${contact.stream.heartbeat-ms:30000}") long heartbeatMillis) {
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.userTokenCache = userTokenCache;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.sender = new SseSender("contact-stream", senderThreads, sendTimeoutMillis);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "contact-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(User user) {
+        // client membuka stream baru setelah timeout, dengan token baru kalau yang lama sudah expired
+        long untilExpired = user.getTokenExpiredAt() - System.currentTimeMillis();
+        SseEmitter emitter = new SseEmitter(Math.max(1, Math.min(timeoutMillis, untilExpired)));
+
+        // channel dibuka sebelum koneksi terlihat oleh listener dan heartbeat, jadi channel koneksi tidak pernah null
+        BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        AtomicReference<Connection> registered = new AtomicReference<>();
+        SseSender.Channel channel = sender.open(emitter, new Mailbox(queue), () -> {
+            Connection closed = registered.get();
+            if (closed != null) {
+                remove(closed);
+            }
+        });
+        Connection connection = new Connection(user.getUsername(), user.getToken(), user.getTokenExpiredAt(), queue, channel);
+
+        AtomicBoolean accepted = new AtomicBoolean();
+        connections.compute(user.getUsername(), (username, userConnections) -> {
+            if (userConnections == null) {
+                userConnections = ConcurrentHashMap.newKeySet();
+            }
+            if (userConnections.size() < maxConnectionsPerUser) {
+                userConnections.add(connection);
+                accepted.set(true);
+            }
+            return userConnections;
+        });
+        if (!accepted.get()) {
+            channel.close();
+            throw TooManyRequestsException.TOO_MANY_STREAMS;
+        }
+        connectionCount.incrementAndGet();
+
+        registered.set(connection);
+        if (channel.isClosed()) {
+            // ditutup sebelum terdaftar, onClose di atas belum bisa menghapusnya
+            remove(connection);
+        }
+
+        // header response baru dikirim bersama pesan pertama, jadi client langsung tahu stream sudah terbuka
+        enqueue(connection, HEARTBEAT);
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @TransactionalEventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        Set<Connection> userConnections = connections.get(event.getUsername());
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+
+        Message message;
+        try {
+            // diserialisasi sekali untuk semua koneksi user ini
+            message = new Message(event.getType().name().toLowerCase(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize contact event for stream", e);
+            return;
+        }
+
+        for (Connection connection : userConnections) {
+            enqueue(connection, message);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUserLoggedOut(UserLoggedOutEvent event) {
+        Set<Connection> userConnections = connections.get(event.getUsername());
+        if (userConnections == null) {
+            return;
+        }
+
+        for (Connection connection : userConnections) {
+            if (connection.token.equals(event.getToken())) {
+                connection.channel.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdown();
+        connections.clear();
+    }
+
+    private void enqueue(Connection connection, Message message) {
+        if (!connection.queue.offer(message)) {
+            // client tidak bisa mengikuti, lebih baik diputus lalu client sync ulang daripada buffer tumbuh tanpa batas
+            log.debug("Closing slow contact stream of {}", connection.username);
+            connection.channel.close();
+            return;
+        }
+        connection.channel.wake();
+    }
+
+    private void sendHeartbeat() {
+        // sekaligus membersihkan koneksi yang client-nya sudah hilang tanpa menutup socket
+        long now = System.currentTimeMillis();
+        Map<String, Boolean> current = new HashMap<>();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            if (connection.tokenExpiredAt < now
+                    || !current.computeIfAbsent(connection.token, token -> isCurrent(connection.username, token, now))) {
+                log.debug("Closing contact stream of {}, token is no longer valid", connection.username);
+                connection.channel.close();
+                return;
+            }
+            enqueue(connection, HEARTBEAT);
+        }));
+    }
+
+    // token bisa dicabut lewat logout atau login ulang di instance lain, jadi dicek lewat cache yang sama dengan request
+    private boolean isCurrent(String username, String token, long now) {
+        try {
+            User user = userTokenCache.get(token, () -> userRepository.findFirstByToken(token).orElse(null));
+            return user != null && user.getUsername().equals(username)
+                    && user.getTokenExpiredAt() != null && user.getTokenExpiredAt() >= now;
+        } catch (RuntimeException e) {
+            // database tidak bisa diakses, stream tetap berjalan sampai token expired atau timeout
+            log.warn("Failed to check token of contact stream: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.username, (username, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private static class Message {
+
+        private final String name;
+
+        private final String data;
+
+        private Message(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+
+    }
+
+    private static class Connection {
+
+        private final String username;
+
+        private final String token;
+
+        private final long tokenExpiredAt;
+
+        private final BlockingQueue<Message> queue;
+
+        private final SseSender.Channel channel;
+
+        private Connection(String username, String token, long tokenExpiredAt, BlockingQueue<Message> queue,
+                           SseSender.Channel channel) {
+            this.username = username;
+            this.token = token;
+            this.tokenExpiredAt = tokenExpiredAt;
+            this.queue = queue;
+            this.channel = channel;
+        }
+
+    }
+
+    private static class Mailbox implements SseSender.Drain {
+
+        private final BlockingQueue<Message> queue;
+
+        private Mailbox(BlockingQueue<Message> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void drain(SseSender.Channel channel) throws IOException {
+            Message message;
+            while ((message = queue.poll()) != null) {
+                if (message == HEARTBEAT) {
+                    channel.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    channel.send(SseEmitter.event().name(message.name).data(message.data));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasPending() {
+            return !queue.isEmpty();
+        }
+
+    }
+
+}
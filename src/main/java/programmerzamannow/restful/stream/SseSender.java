@@ -0,0 +1,221 @@
+package programmerzamannow.restful.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// pengiriman SSE di thread pool sendiri, satu channel paling banyak dikirim oleh satu thread sekaligus.
+// SseEmitter.send blocking: kalau buffer socket client penuh, send tertahan sampai write timeout Tomcat.
+// Send yang lebih lama dari send-timeout membuat channel langsung dikeluarkan dan pool mendapat thread pengganti,
+// jadi client yang macet tidak menahan pengiriman ke client lain
+@Slf4j
+public class SseSender {
+
+    private static final int IDLE = 0;
+
+    private static final int SENDING = 1;
+
+    private static final int STALLED = 2;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService watchdog;
+
+    private final int threads;
+
+    private final long sendTimeoutNanos;
+
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+
+    // jumlah thread yang sedang tertahan di send channel yang sudah dikeluarkan
+    private int stalled;
+
+    public SseSender(String name, int threads, long sendTimeoutMillis) {
+        this.threads = threads;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads(name + "-sender-"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads(name + "-watchdog-"));
+
+        long checkMillis = Math.max(100, sendTimeoutMillis / 2);
+        this.watchdog.scheduleWithFixedDelay(this::evictStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // drain dipanggil di thread sender setiap kali channel dibangunkan, hasPending dicek setelah drain selesai
+    public Channel open(SseEmitter emitter, Drain drain, Runnable onClose) {
+        Channel channel = new Channel(emitter, drain, onClose);
+        channels.add(channel);
+        emitter.onCompletion(channel::markClosed);
+        emitter.onError(error -> channel.markClosed());
+        emitter.onTimeout(channel::close);
+        return channel;
+    }
+
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+        channels.forEach(Channel::close);
+        channels.clear();
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        for (Channel channel : channels) {
+            if (channel.state.get() == SENDING && now - channel.sendStartedAt > sendTimeoutNanos
+                    && channel.state.compareAndSet(SENDING, STALLED)) {
+                log.debug("Evicting SSE channel, send took longer than {} ms", TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                channel.markClosed();
+                resize(1);
+            }
+        }
+    }
+
+    private synchronized void resize(int delta) {
+        stalled += delta;
+        // urutan penting: maximum tidak boleh lebih kecil dari core
+        if (delta > 0) {
+            executor.setMaximumPoolSize(threads + stalled);
+            executor.setCorePoolSize(threads + stalled);
+        } else {
+            executor.setCorePoolSize(threads + stalled);
+            executor.setMaximumPoolSize(threads + stalled);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public interface Drain {
+
+        // kirim semua yang menunggu lewat channel.send, IOException berarti channel ditutup
+        void drain(Channel channel) throws IOException;
+
+        boolean hasPending();
+
+    }
+
+    public final class Channel {
+
+        private final SseEmitter emitter;
+
+        private final Drain drain;
+
+        private final Runnable onClose;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        private volatile long sendStartedAt;
+
+        private Channel(SseEmitter emitter, Drain drain, Runnable onClose) {
+            this.emitter = emitter;
+            this.drain = drain;
+            this.onClose = onClose;
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        public void wake() {
+            if (!closed.get()) {
+                schedule();
+            }
+        }
+
+        // aman dipanggil dari thread mana pun: emitter diselesaikan di thread sender, bukan di thread pemanggil
+        // yang bisa ikut tertahan menunggu send yang sedang berjalan
+        public void close() {
+            markClosed();
+            schedule();
+        }
+
+        public void send(SseEmitter.SseEventBuilder event) throws IOException {
+            if (closed.get()) {
+                throw new IOException("SSE channel closed");
+            }
+
+            sendStartedAt = System.nanoTime();
+            state.set(SENDING);
+            try {
+                emitter.send(event);
+            } finally {
+                if (!state.compareAndSet(SENDING, IDLE)) {
+                    // sudah dikeluarkan watchdog, thread pengganti tidak dibutuhkan lagi
+                    state.set(IDLE);
+                    resize(-1);
+                }
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::run);
+                } catch (RuntimeException e) {
+                    // executor sudah shutdown
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void run() {
+            try {
+                if (!closed.get()) {
+                    drain.drain(this);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client sudah putus atau channel ditutup selama drain
+                markClosed();
+            } finally {
+                scheduled.set(false);
+            }
+
+            if (closed.get()) {
+                complete();
+                return;
+            }
+            // pesan yang masuk setelah drain terakhir tapi sebelum flag dilepas
+            if (drain.hasPending()) {
+                schedule();
+            }
+        }
+
+        private void markClosed() {
+            if (closed.compareAndSet(false, true)) {
+                channels.remove(this);
+                onClose.run();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // emitter sudah selesai
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package programmerzamannow.restful.cache;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    @SneakyThrows
+    void concurrentCallsShareOneExecution() {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute("ilhaam.ms:1", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "Ilham";
+            })));
+        }
+
+        // tunggu sampai pemanggil pertama sedang berjalan dan sisanya sempat bergabung
+        while (singleFlight.inFlight() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertEquals("Ilham", future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void resultIsNotKeptAfterCompletion() {
+        assertEquals("Lama", singleFlight.execute("ilhaam.ms:1", () -> "Lama"));
+        assertEquals("Baru", singleFlight.execute("ilhaam.ms:1", () -> "Baru"));
+    }
+
+    @Test
+    @SneakyThrows
+    void failureIsSharedWithWaiters() {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<String> first = executor.submit(() -> singleFlight.execute("ilhaam.ms:1", () -> {
+            await(release);
+            throw new IllegalStateException("Database down");
+        }));
+        while (singleFlight.inFlight() == 0) {
+            Thread.sleep(1);
+        }
+        Future<String> second = executor.submit(() -> singleFlight.execute("ilhaam.ms:1", () -> "tidak dipanggil"));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException firstError = assertThrows(ExecutionException.class, first::get);
+        ExecutionException secondError = assertThrows(ExecutionException.class, second::get);
+        executor.shutdown();
+
+        assertEquals("Database down", firstError.getCause().getMessage());
+        assertEquals("Database down", secondError.getCause().getMessage());
+    }
+
+    @SneakyThrows
+    private static void await(CountDownLatch latch) {
+        latch.await();
+    }
+
+}
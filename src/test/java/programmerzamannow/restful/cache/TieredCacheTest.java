@@ -0,0 +1,141 @@
+package programmerzamannow.restful.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import programmerzamannow.restful.CacheConfiguration;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    private final SharedCache sharedCache = new InMemorySharedCache();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TieredCache<ContactResponse> newCache() {
+        return new TieredCache<>("contact", ContactResponse.class, sharedCache, objectMapper,
+                UnaryOperator.identity(), 100, 60_000, 60_000, 2_000);
+    }
+
+    private ContactResponse contact(String firstName) {
+        return ContactResponse.builder().id("1").firstName(firstName).build();
+    }
+
+    @Test
+    void loadOnceThenServeFromCache() {
+        TieredCache<ContactResponse> cache = newCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            ContactResponse response = cache.get("ilhaam.ms:1", () -> {
+                loads.incrementAndGet();
+                return contact("Ilham");
+            });
+            assertEquals("Ilham", response.getFirstName());
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void sharedTierServesOtherNode() {
+        TieredCache<ContactResponse> node1 = newCache();
+        TieredCache<ContactResponse> node2 = newCache();
+
+        node1.get("ilhaam.ms:1", () -> contact("Ilham"));
+        ContactResponse response = node2.get("ilhaam.ms:1", () -> fail("should be read from the shared cache"));
+
+        assertEquals("Ilham", response.getFirstName());
+    }
+
+    @Test
+    void invalidationReachesAllNodes() {
+        TieredCache<ContactResponse> node1 = newCache();
+        TieredCache<ContactResponse> node2 = newCache();
+        node1.get("ilhaam.ms:1", () -> contact("Ilham"));
+        node2.get("ilhaam.ms:1", () -> contact("Ilham"));
+
+        node1.invalidate("ilhaam.ms:1");
+
+        assertEquals("Budi", node2.get("ilhaam.ms:1", () -> contact("Budi")).getFirstName());
+        assertEquals("Budi", node1.get("ilhaam.ms:1", () -> contact("Eko")).getFirstName());
+    }
+
+    @Test
+    void invalidationDuringLoadDropsStaleValue() {
+        TieredCache<ContactResponse> cache = newCache();
+
+        ContactResponse stale = cache.get("ilhaam.ms:1", () -> {
+            cache.invalidate("ilhaam.ms:1");
+            return contact("Lama");
+        });
+        assertEquals("Lama", stale.getFirstName());
+
+        assertEquals("Baru", cache.get("ilhaam.ms:1", () -> contact("Baru")).getFirstName());
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentMissesLoadOnce() {
+        List<TieredCache<ContactResponse>> nodes = List.of(newCache(), newCache(), newCache(), newCache());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        List<Future<ContactResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            TieredCache<ContactResponse> node = nodes.get(i % nodes.size());
+            futures.add(executor.submit(() -> {
+                start.await();
+                return node.get("ilhaam.ms:1", () -> {
+                    loads.incrementAndGet();
+                    sleep(100);
+                    return contact("Ilham");
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<ContactResponse> future : futures) {
+            assertEquals("Ilham", future.get().getFirstName());
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void userTokenCacheDropsPassword() {
+        CacheConfiguration configuration = new CacheConfiguration(100, 60_000, 60_000, 2_000);
+        TieredCache<User> node1 = configuration.userTokenCache(sharedCache, objectMapper);
+        TieredCache<User> node2 = configuration.userTokenCache(sharedCache, objectMapper);
+
+        User loaded = new User("ilhaam.ms", "$2a$10$hash", "Ilham", "token", Long.MAX_VALUE, null);
+        User user = node1.get("token", () -> loaded);
+        assertEquals("ilhaam.ms", user.getUsername());
+        assertNull(user.getPassword());
+        assertEquals("$2a$10$hash", loaded.getPassword());
+
+        User shared = node2.get("token", () -> fail("should be read from the shared cache"));
+        assertEquals("ilhaam.ms", shared.getUsername());
+        assertNull(shared.getPassword());
+    }
+
+    @SneakyThrows
+    private static void sleep(long millis) {
+        Thread.sleep(millis);
+    }
+
+}
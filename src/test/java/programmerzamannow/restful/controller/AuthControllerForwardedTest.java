@@ -0,0 +1,79 @@
+package programmerzamannow.restful.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import programmerzamannow.restful.model.LoginUserRequest;
+import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.ContactTombstoneRepository;
+import programmerzamannow.restful.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// lewat Tomcat sungguhan, RemoteIpValve tidak berjalan di MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"auth.login.address-free-attempts=3", "query-budget.fail-on-violation=true"})
+class AuthControllerForwardedTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private ContactTombstoneRepository contactTombstoneRepository;
+
+    @BeforeEach
+    void setUp() {
+        contactRepository.deleteAll();
+        contactTombstoneRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // HttpURLConnection tidak bisa membaca respon 401 untuk POST dengan body streaming
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setOutputStreaming(false);
+        restTemplate.getRestTemplate().setRequestFactory(requestFactory);
+    }
+
+    @Test
+    void loginThrottledByForwardedAddress() {
+        // username berbeda setiap percobaan, jadi yang memblokir hanya counter alamat
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.UNAUTHORIZED, login("tamu-" + i, "203.0.113.10").getStatusCode());
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("tamu-3", "203.0.113.10").getStatusCode());
+
+        // koneksi dari proxy yang sama (127.0.0.1) tapi client lain tidak ikut terblokir
+        assertEquals(HttpStatus.UNAUTHORIZED, login("tamu-4", "203.0.113.20").getStatusCode());
+    }
+
+    private ResponseEntity<String> login(String username, String forwardedFor) {
+        LoginUserRequest request = new LoginUserRequest();
+        request.setUsername(username);
+        request.setPassword("salah");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set("X-Forwarded-For", forwardedFor);
+
+        return restTemplate.exchange("/api/auth/login", HttpMethod.POST, new HttpEntity<>(request, headers), String.class);
+    }
+
+}
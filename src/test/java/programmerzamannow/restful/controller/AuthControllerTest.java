@@ -12,13 +12,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.BatchLoginRequest;
+import programmerzamannow.restful.model.BatchLoginResponse;
 import programmerzamannow.restful.model.LoginUserRequest;
 import programmerzamannow.restful.model.TokenResponse;
 import programmerzamannow.restful.model.WebResponse;
 import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.ContactTombstoneRepository;
 import programmerzamannow.restful.repository.UserRepository;
 import programmerzamannow.restful.security.BCrypt;
+import programmerzamannow.restful.service.TokenSweeper;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.MockMvcBuilder.*;
@@ -26,7 +33,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"internal.api-token=rahasia-internal", "query-budget.fail-on-violation=true"})
 @AutoConfigureMockMvc
 class AuthControllerTest {
 
@@ -42,10 +49,21 @@ class AuthControllerTest {
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private ContactTombstoneRepository contactTombstoneRepository;
+
+    @Autowired
+    private TieredCache<User> userTokenCache;
+
+    @Autowired
+    private TokenSweeper tokenSweeper;
+
     @BeforeEach
     void setUp() {
         contactRepository.deleteAll();
+        contactTombstoneRepository.deleteAll();
         userRepository.deleteAll();
+        userTokenCache.clear();
     }
 
     @Test
@@ -147,4 +165,157 @@ class AuthControllerTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    void logoutInvalidatesCachedToken() {
+
+        User user = new User();
+        user.setUsername("eko");
+        user.setPassword(BCrypt.hashpw("rahasia", BCrypt.gensalt()));
+        user.setName("Eko");
+        user.setToken("test");
+        user.setTokenExpiredAt(System.currentTimeMillis() + 1000000);
+
+        userRepository.save(user);
+
+        // request pertama mengisi cache token
+        mockMvc.perform(
+                get("/api/users/current")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                delete("/api/auth/logout")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/users/current")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    void sweepExpiredTokens() {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setUsername("eko" + i);
+            user.setPassword(BCrypt.hashpw("rahasia", BCrypt.gensalt(4)));
+            user.setName("Eko");
+            user.setToken("token" + i);
+            // eko2 masih berlaku
+            user.setTokenExpiredAt(System.currentTimeMillis() + (i == 2 ? 1000000 : -1000));
+            userRepository.save(user);
+        }
+
+        assertEquals(2, tokenSweeper.sweep());
+
+        assertNull(userRepository.findById("eko0").orElseThrow().getToken());
+        assertNull(userRepository.findById("eko1").orElseThrow().getTokenExpiredAt());
+        assertEquals("token2", userRepository.findById("eko2").orElseThrow().getToken());
+    }
+
+    @Test
+    @SneakyThrows
+    void loginThrottledAfterRepeatedFailures() {
+
+        LoginUserRequest loginRequest = new LoginUserRequest();
+        loginRequest.setUsername("tidak-ada");
+        loginRequest.setPassword("salah");
+
+        // username tidak ada tetap dihitung, sama seperti password salah
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(
+                    post("/api/auth/login")
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest))
+            ).andExpectAll(
+                    status().isUnauthorized()
+            );
+        }
+
+        mockMvc.perform(
+                post("/api/auth/login")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest))
+        ).andExpectAll(
+                status().isTooManyRequests()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertEquals("Too many login attempts, please retry later", response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void loginBatchUnauthorized() {
+
+        BatchLoginRequest request = new BatchLoginRequest(List.of(new LoginUserRequest("eko", "rahasia")));
+
+        mockMvc.perform(
+                post("/api/auth/login/batch")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+        ).andExpectAll(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void loginBatchSuccess() {
+
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setUsername("eko" + i);
+            user.setPassword(BCrypt.hashpw("rahasia" + i, BCrypt.gensalt(4)));
+            user.setName("Eko");
+            userRepository.save(user);
+        }
+
+        BatchLoginRequest request = new BatchLoginRequest(List.of(
+                new LoginUserRequest("eko0", "rahasia0"),
+                new LoginUserRequest("eko1", "salah"),
+                new LoginUserRequest("tidak-ada", "rahasia"),
+                new LoginUserRequest("eko2", "rahasia2")
+        ));
+
+        mockMvc.perform(
+                post("/api/auth/login/batch")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-Internal-Token", "rahasia-internal")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<BatchLoginResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(4, response.getData().size());
+            assertNotNull(response.getData().get(0).getToken());
+            assertNull(response.getData().get(1).getToken());
+            assertNull(response.getData().get(2).getToken());
+            assertNotNull(response.getData().get(3).getToken());
+
+            assertEquals(response.getData().get(0).getToken(), userRepository.findById("eko0").orElseThrow().getToken());
+            assertNull(userRepository.findById("eko1").orElseThrow().getToken());
+        });
+    }
+
+}
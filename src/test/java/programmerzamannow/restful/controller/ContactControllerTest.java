@@ -11,17 +11,33 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.model.BatchContactResponse;
+import programmerzamannow.restful.model.BatchGetContactRequest;
+import programmerzamannow.restful.model.BulkContactResponse;
+import programmerzamannow.restful.model.BulkDeleteContactRequest;
+import programmerzamannow.restful.model.BulkUpdateContactRequest;
+import programmerzamannow.restful.model.ContactDuplicateResponse;
 import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.model.ContactSuggestionResponse;
+import programmerzamannow.restful.model.ContactSyncResponse;
 import programmerzamannow.restful.model.CreateContactRequest;
+import programmerzamannow.restful.model.DeleteContactByFilterRequest;
 import programmerzamannow.restful.model.UpdateContactRequest;
 import programmerzamannow.restful.model.WebResponse;
 import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.ContactTombstoneRepository;
 import programmerzamannow.restful.repository.UserRepository;
+import programmerzamannow.restful.search.ContactSearchIndex;
+import programmerzamannow.restful.search.ContactSuggestIndex;
 import programmerzamannow.restful.security.BCrypt;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,7 +46,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"query-budget.fail-on-violation=true", "contact.sync.safety-lag-ms=0"})
 @AutoConfigureMockMvc
 class ContactControllerTest {
 
@@ -43,14 +59,34 @@ class ContactControllerTest {
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private ContactTombstoneRepository contactTombstoneRepository;
+
+    @Autowired
+    private TieredCache<User> userTokenCache;
+
+    @Autowired
+    private TieredCache<ContactResponse> contactCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+
+    @Autowired
+    private ContactSuggestIndex contactSuggestIndex;
+
     @BeforeEach
     void setUp() {
 
         contactRepository.deleteAll();
+        contactTombstoneRepository.deleteAll();
         userRepository.deleteAll();
+        userTokenCache.clear();
+        contactCache.clear();
+        contactSearchIndex.evict("ilhaam.ms");
+        contactSuggestIndex.evict("ilhaam.ms");
 
         User user = new User();
         user.setUsername("ilhaam.ms");
@@ -303,4 +339,668 @@ class ContactControllerTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    void syncContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contact.setUpdatedAt(1000L + i);
+            contactRepository.save(contact);
+        }
+
+        mockMvc.perform(
+                delete("/api/contacts/contact-0")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/contacts/sync")
+                        .queryParam("since", "1000")
+                        .queryParam("sinceId", "contact-0")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<ContactSyncResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getChanged().size());
+            assertEquals("contact-1", response.getData().getChanged().get(0).getId());
+            assertEquals("contact-2", response.getData().getChanged().get(1).getId());
+            assertEquals(1, response.getData().getDeleted().size());
+            assertEquals("contact-0", response.getData().getDeleted().get(0));
+            assertEquals("contact-0", response.getData().getWatermarkId());
+            assertFalse(response.getData().getHasMore());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void syncContactPaging() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contact.setUpdatedAt(1000L);
+            contactRepository.save(contact);
+        }
+
+        mockMvc.perform(
+                get("/api/contacts/sync")
+                        .queryParam("size", "2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<ContactSyncResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getChanged().size());
+            assertEquals(1000L, response.getData().getWatermark());
+            assertEquals("contact-1", response.getData().getWatermarkId());
+            assertTrue(response.getData().getHasMore());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void batchGetContactInvalid() {
+
+        BatchGetContactRequest request = new BatchGetContactRequest();
+        request.setIds(List.of());
+
+        mockMvc.perform(
+                post("/api/contacts/batch-get")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isBadRequest()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNotNull(response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void batchGetContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contactRepository.save(contact);
+        }
+
+        BatchGetContactRequest request = new BatchGetContactRequest();
+        request.setIds(List.of("contact-2", "salah", "contact-0"));
+
+        mockMvc.perform(
+                post("/api/contacts/batch-get")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BatchContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getContacts().size());
+            assertEquals("contact-2", response.getData().getContacts().get(0).getId());
+            assertEquals("contact-0", response.getData().getContacts().get(1).getId());
+            assertEquals(List.of("salah"), response.getData().getMissing());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void bulkUpdateContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contact.setPhone("081234567890");
+            contactRepository.save(contact);
+        }
+
+        BulkUpdateContactRequest request = new BulkUpdateContactRequest();
+        request.setIds(List.of("contact-0", "contact-1", "salah"));
+        request.setLastName("Ramadhan");
+
+        mockMvc.perform(
+                patch("/api/contacts/bulk")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BulkContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getAffected());
+
+            Contact contact = contactRepository.findById("contact-0").orElseThrow();
+            assertEquals("Hamzah 0", contact.getFirstName());
+            assertEquals("Ramadhan", contact.getLastName());
+            assertEquals("081234567890", contact.getPhone());
+            assertNull(contactRepository.findById("contact-2").orElseThrow().getLastName());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void bulkDeleteContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contactRepository.save(contact);
+        }
+
+        BulkDeleteContactRequest request = new BulkDeleteContactRequest();
+        request.setIds(List.of("contact-0", "contact-1", "salah"));
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BulkContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getAffected());
+            assertEquals(1, contactRepository.count());
+            assertEquals(2, contactTombstoneRepository.count());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteContactByFilterInvalid() {
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete-by-filter")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeleteContactByFilterRequest()))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isBadRequest()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertEquals("At least one filter is required", response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteContactByFilterBlank() {
+
+        DeleteContactByFilterRequest request = new DeleteContactByFilterRequest();
+        request.setName(" ");
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete-by-filter")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isBadRequest()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNotNull(response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteContactByFilterWildcard() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 2; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName(i == 0 ? "Hamzah" : "Hamzah 100%");
+            contactRepository.save(contact);
+        }
+
+        DeleteContactByFilterRequest request = new DeleteContactByFilterRequest();
+        request.setName("%");
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete-by-filter")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BulkContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            // hanya contact yang namanya mengandung karakter % yang terhapus
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().getAffected());
+            assertTrue(contactRepository.existsById("contact-0"));
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteContactByFilterSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contact.setEmail(i == 0 ? "hamzah@gmail.com" : "hamzah@example.com");
+            contactRepository.save(contact);
+        }
+
+        DeleteContactByFilterRequest request = new DeleteContactByFilterRequest();
+        request.setEmail("example.com");
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete-by-filter")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BulkContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().getAffected());
+            assertTrue(contactRepository.existsById("contact-0"));
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteContactByFilterManyPages() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        // lebih dari dua halaman keyset
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            Contact contact = new Contact();
+            contact.setId(String.format("contact-%03d", i));
+            contact.setUser(user);
+            contact.setFirstName("Hamzah " + i);
+            contact.setEmail("hamzah" + i + "@example.com");
+            contacts.add(contact);
+        }
+        contactRepository.saveAll(contacts);
+
+        DeleteContactByFilterRequest request = new DeleteContactByFilterRequest();
+        request.setEmail("example.com");
+
+        mockMvc.perform(
+                post("/api/contacts/bulk-delete-by-filter")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<BulkContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(250, response.getData().getAffected());
+            assertEquals(0, contactRepository.count());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void searchContactInvalid() {
+        mockMvc.perform(
+                get("/api/contacts/search")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isBadRequest()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNotNull(response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void searchContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        Contact contact = new Contact();
+        contact.setId(UUID.randomUUID().toString());
+        contact.setUser(user);
+        contact.setFirstName("Hamzah");
+        contact.setLastName("Muhammad Ramadhan");
+        contact.setEmail("hamzah@gmail.com");
+        contact.setPhone("081234567890");
+        contactRepository.save(contact);
+
+        CreateContactRequest request = new CreateContactRequest();
+        request.setFirstName("Ilham");
+        request.setLastName("Muhammad Sidiq");
+        request.setPhone("089876543210");
+
+        // pencarian pertama membangun index dari database
+        mockMvc.perform(
+                get("/api/contacts/search")
+                        .queryParam("q", "muham")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        // contact baru masuk ke index lewat event setelah commit
+        mockMvc.perform(
+                post("/api/contacts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/contacts/search")
+                        .queryParam("q", "muham")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(2, response.getData().size());
+        });
+
+        mockMvc.perform(
+                get("/api/contacts/search")
+                        .queryParam("q", "6543")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().size());
+            assertEquals("Ilham", response.getData().get(0).getFirstName());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void suggestContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        Contact contact = new Contact();
+        contact.setId("contact-1");
+        contact.setUser(user);
+        contact.setFirstName("Hamzah");
+        contact.setLastName("Muhammad Ramadhan");
+        contact.setEmail("hamzah@gmail.com");
+        contactRepository.save(contact);
+
+        mockMvc.perform(
+                get("/api/contacts/suggest")
+                        .queryParam("q", "Ham")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactSuggestionResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().size());
+            assertEquals("contact-1", response.getData().get(0).getId());
+            assertEquals("Hamzah Muhammad Ramadhan", response.getData().get(0).getName());
+            assertEquals("hamzah", response.getData().get(0).getValue());
+        });
+
+        mockMvc.perform(
+                delete("/api/contacts/contact-1")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/contacts/suggest")
+                        .queryParam("q", "Ham")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactSuggestionResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertTrue(response.getData().isEmpty());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void findDuplicateContactSuccess() {
+
+        var user = userRepository.findById("ilhaam.ms").orElseThrow();
+
+        for (int i = 0; i < 2; i++) {
+            Contact contact = new Contact();
+            contact.setId("contact-" + i);
+            contact.setUser(user);
+            contact.setFirstName("Hamzah");
+            contact.setPhone(i == 0 ? "0812-3456-7890" : "081234567890");
+            contactRepository.save(contact);
+        }
+
+        mockMvc.perform(
+                get("/api/contacts/duplicates")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactDuplicateResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().size());
+            assertEquals("contact-0", response.getData().get(0).getPrimaryId());
+            assertEquals(List.of("contact-1"), response.getData().get(0).getDuplicateIds());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void lookupContactInvalid() {
+        mockMvc.perform(
+                get("/api/contacts/lookup")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isBadRequest()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertEquals("Either phone or email is required", response.getErrors());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void lookupContactSuccess() {
+
+        CreateContactRequest request = new CreateContactRequest();
+        request.setFirstName("Hamzah");
+        request.setEmail("Hamzah@Example.com");
+        request.setPhone("0812-3456-7890");
+
+        mockMvc.perform(
+                post("/api/contacts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/contacts/lookup")
+                        .queryParam("phone", "+62 812 3456 7890")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().size());
+            assertEquals("0812-3456-7890", response.getData().get(0).getPhone());
+        });
+
+        mockMvc.perform(
+                get("/api/contacts/lookup")
+                        .queryParam("email", "hamzah@example.com")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        ).andDo(result -> {
+            WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertEquals(1, response.getData().size());
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void streamContactUnauthorized() {
+        mockMvc.perform(
+                get("/api/contacts/stream")
+                        .header("X-API-Token", "salah")
+        ).andExpectAll(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void streamContactSuccess() {
+        MvcResult result = mockMvc.perform(
+                get("/api/contacts/stream")
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                request().asyncStarted()
+        ).andReturn();
+
+        CreateContactRequest request = new CreateContactRequest();
+        request.setFirstName("Ilham");
+        request.setLastName("Sidiq");
+        request.setEmail("ilham@example.com");
+        request.setPhone("081234567890");
+
+        mockMvc.perform(
+                post("/api/contacts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header("X-API-Token", "test")
+        ).andExpectAll(
+                status().isOk()
+        );
+
+        // event dikirim thread sender setelah commit
+        String content = "";
+        for (int i = 0; i < 50 && !content.contains("event:created"); i++) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+
+        assertTrue(content.contains("event:created"));
+        assertTrue(content.contains("\"firstName\":\"Ilham\""));
+    }
+
+}
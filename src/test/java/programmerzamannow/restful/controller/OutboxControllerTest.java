@@ -0,0 +1,132 @@
+package programmerzamannow.restful.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.entity.OutboxEvent;
+import programmerzamannow.restful.repository.OutboxEventRepository;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"internal.api-token=rahasia-internal", "query-budget.fail-on-violation=true"})
+@AutoConfigureMockMvc
+class OutboxControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @SneakyThrows
+    void testStreamUnauthorized() {
+        mockMvc.perform(
+                get("/api/events/stream")
+                        .header("X-Internal-Token", "salah")
+        ).andExpectAll(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    @SneakyThrows
+    void testStreamFromCursor() {
+        Long after = outboxEventRepository.findMaxPosition();
+        for (int i = 0; i < 3; i++) {
+            outboxEventRepository.save(event("Ilham " + i));
+        }
+
+        MvcResult result = mockMvc.perform(
+                get("/api/events/stream")
+                        .header("X-Internal-Token", "rahasia-internal")
+                        .param("after", after.toString())
+        ).andExpectAll(
+                request().asyncStarted()
+        ).andReturn();
+
+        // relay berjalan di thread sendiri, tunggu sampai ketiga event terkirim
+        String content = "";
+        for (int i = 0; i < 50 && !content.contains("Ilham 2"); i++) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+
+        assertTrue(content.contains("event:outbox"));
+        assertTrue(content.contains("\"name\":\"Ilham 0\""));
+        assertTrue(content.indexOf("Ilham 0") < content.indexOf("Ilham 2"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testStreamLateCommit() {
+        Long after = outboxEventRepository.findMaxPosition();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // id transaksi lambat dialokasikan lebih dulu, tapi commit setelah event lain sudah terkirim
+        Thread slow = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.saveAndFlush(event("Lambat"));
+            inserted.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        slow.start();
+        inserted.await();
+        outboxEventRepository.save(event("Cepat"));
+
+        MvcResult result = mockMvc.perform(
+                get("/api/events/stream")
+                        .header("X-Internal-Token", "rahasia-internal")
+                        .param("after", after.toString())
+        ).andExpectAll(
+                request().asyncStarted()
+        ).andReturn();
+
+        String content = "";
+        for (int i = 0; i < 50 && !content.contains("Cepat"); i++) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains("Cepat"));
+
+        // lebih lama dari gap timeout relay sebelumnya (2 detik)
+        Thread.sleep(3000);
+        commit.countDown();
+        slow.join();
+
+        for (int i = 0; i < 50 && !content.contains("Lambat"); i++) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains("Lambat"));
+        assertTrue(content.indexOf("Cepat") < content.indexOf("Lambat"));
+    }
+
+    private OutboxEvent event(String name) {
+        return OutboxEvent.builder()
+                .aggregateType("user")
+                .eventType("UPDATED")
+                .username("ilhaam.ms")
+                .payload("{\"name\":\"" + name + "\"}")
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+}
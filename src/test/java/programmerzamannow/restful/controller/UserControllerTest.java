@@ -11,11 +11,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
+import programmerzamannow.restful.cache.TieredCache;
 import programmerzamannow.restful.entity.User;
 import programmerzamannow.restful.model.*;
 import programmerzamannow.restful.repository.ContactRepository;
+import programmerzamannow.restful.repository.ContactTombstoneRepository;
 import programmerzamannow.restful.repository.UserRepository;
 import programmerzamannow.restful.security.BCrypt;
+import programmerzamannow.restful.security.TokenFormat;
 
 import javax.validation.ConstraintViolationException;
 
@@ -23,7 +26,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "query-budget.fail-on-violation=true")
 @AutoConfigureMockMvc
 class UserControllerTest {
 
@@ -39,10 +42,18 @@ class UserControllerTest {
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private ContactTombstoneRepository contactTombstoneRepository;
+
+    @Autowired
+    private TieredCache<User> userTokenCache;
+
     @BeforeEach
     void setUp() {
         contactRepository.deleteAll();
+        contactTombstoneRepository.deleteAll();
         userRepository.deleteAll();
+        userTokenCache.clear();
     }
 
     @Test
@@ -237,6 +248,27 @@ class UserControllerTest {
         });
     }
 
+    @Test
+    @SneakyThrows
+    void getUserTokenExpiredWithoutLookup() {
+
+        // token tidak ada di database, tetap ditolak sebagai expired dari prefix-nya
+        String token = TokenFormat.generate(System.currentTimeMillis() - 1000 * 60 * 60);
+
+        mockMvc.perform(
+                get("/api/users/current")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-Token", token)
+        ).andExpect(
+                status().isUnauthorized()
+        ).andDo(result -> {
+            WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertEquals("Token expired", response.getErrors());
+        });
+    }
+
     @Test
     @SneakyThrows
     void updateUserInvalidToken() {
@@ -0,0 +1,28 @@
+package programmerzamannow.restful.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiExceptionTest {
+
+    @Test
+    void preallocatedWithoutStackTrace() {
+        ApiException exception = NotFoundException.CONTACT_NOT_FOUND;
+
+        assertEquals(0, exception.getStackTrace().length);
+        exception.addSuppressed(new IllegalStateException());
+        assertEquals(0, exception.getSuppressed().length);
+    }
+
+    @Test
+    void responseIsPrepared() {
+        ApiException exception = AuthenticationException.TOKEN_EXPIRED;
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getResponse().getStatusCode());
+        assertEquals("Token expired", exception.getResponse().getBody().getErrors());
+        assertSame(exception.getResponse(), AuthenticationException.TOKEN_EXPIRED.getResponse());
+    }
+
+}
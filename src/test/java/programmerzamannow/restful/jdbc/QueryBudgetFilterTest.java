@@ -0,0 +1,107 @@
+package programmerzamannow.restful.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import programmerzamannow.restful.exception.QueryBudgetExceededException;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryInspector queryInspector = new QueryInspector(
+            new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+            true, 3, 100);
+
+    @Test
+    void countStatementsPerEndpoint() throws Exception {
+        filter(20, true).doFilter(request(), new MockHttpServletResponse(), chain(
+                "select * from users where token = ?",
+                "select * from contacts where user_id = ? and id = ?",
+                "update contacts set first_name = ? where id = ?"));
+
+        assertEquals(3.0, meterRegistry.get("jdbc.statements.per.request")
+                .tag("endpoint", "PUT /api/contacts/{contactId}")
+                .summary().totalAmount());
+        assertEquals(1, meterRegistry.get("jdbc.statements.time.per.request").timer().count());
+    }
+
+    @Test
+    void repeatedStatementFailsWhenEnabled() {
+        MockFilterChain chain = chain(
+                "select * from users where token = ?",
+                "select * from addresses where contact_id = ?",
+                "select * from addresses where contact_id = ?",
+                "select * from addresses where contact_id = ?");
+
+        QueryBudgetExceededException exception = assertThrows(QueryBudgetExceededException.class,
+                () -> filter(20, true).doFilter(request(), new MockHttpServletResponse(), chain));
+
+        assertTrue(exception.getMessage().contains("3x select * from addresses where contact_id = ?"),
+                exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("jdbc.statements.repeated").counter().count());
+    }
+
+    @Test
+    void budgetExceededOnlyCountedWhenDisabled() throws Exception {
+        filter(2, false).doFilter(request(), new MockHttpServletResponse(), chain(
+                "select * from users where token = ?",
+                "select * from contacts where user_id = ? and id = ?",
+                "update contacts set first_name = ? where id = ?"));
+
+        assertEquals(1.0, meterRegistry.get("jdbc.query.budget.exceeded")
+                .tag("endpoint", "PUT /api/contacts/{contactId}")
+                .counter().count());
+    }
+
+    @Test
+    void statementsOutsideRequestNotCounted() throws Exception {
+        queryInspector.afterExecute("select * from outbox_events", 1_000, false);
+
+        filter(1, true).doFilter(request(), new MockHttpServletResponse(), chain("select * from users where token = ?"));
+
+        assertEquals(1.0, meterRegistry.get("jdbc.statements.per.request").summary().totalAmount());
+    }
+
+    @Test
+    void slowStatementCountedWithOrigin() {
+        queryInspector.afterExecute("select * from contacts", 150_000_000, false);
+
+        // dipanggil dari test di package jdbc, tidak ada frame service atau class aplikasi lain
+        assertEquals(1.0, meterRegistry.get("jdbc.statements.slow").tag("origin", "unknown").counter().count());
+    }
+
+    private QueryBudgetFilter filter(int maxStatements, boolean failOnViolation) {
+        return new QueryBudgetFilter(queryInspector, meterRegistry, maxStatements, failOnViolation);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/contacts/123");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/contacts/{contactId}");
+        return request;
+    }
+
+    // seolah-olah TimedDataSource mengeksekusi statement selama request
+    private MockFilterChain chain(String... statements) {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                for (String sql : statements) {
+                    queryInspector.afterExecute(sql, 1_000, false);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,126 @@
+package programmerzamannow.restful.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedDataSourceTest {
+
+    private final List<String> executed = new ArrayList<>();
+
+    private final List<Boolean> failures = new ArrayList<>();
+
+    private final StatementListener listener = (sql, elapsedNanos, failed) -> {
+        assertTrue(elapsedNanos >= 0);
+        executed.add(sql);
+        failures.add(failed);
+    };
+
+    @Test
+    void preparedStatement() throws SQLException {
+        Connection target = connection();
+        TimedDataSource dataSource = new TimedDataSource(dataSource(target), List.of(listener));
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select * from users where username = ?")) {
+            statement.setString(1, "test");
+            statement.executeQuery();
+            statement.addBatch();
+            statement.executeBatch();
+
+            assertSame(target, ((ConnectionProxy) connection).getTargetConnection());
+        }
+
+        assertEquals(List.of("select * from users where username = ?", "select * from users where username = ?"), executed);
+        assertEquals(List.of(false, false), failures);
+    }
+
+    @Test
+    void plainStatement() throws SQLException {
+        TimedDataSource dataSource = new TimedDataSource(dataSource(connection()), List.of(listener));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("delete from contacts");
+            statement.executeBatch();
+        }
+
+        assertEquals(List.of("delete from contacts", "batch"), executed);
+    }
+
+    @Test
+    void failedStatement() throws SQLException {
+        TimedDataSource dataSource = new TimedDataSource(dataSource(connection()), List.of(listener));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute("gagal"));
+        }
+
+        assertEquals(List.of("gagal"), executed);
+        assertEquals(List.of(true), failures);
+    }
+
+    @Test
+    void unwrapTarget() throws SQLException {
+        DataSource target = dataSource(connection());
+        TimedDataSource dataSource = new TimedDataSource(target, List.of(listener));
+
+        assertTrue(dataSource.isWrapperFor(TimedDataSource.class));
+        assertSame(target, dataSource.getTargetDataSource());
+    }
+
+    @Test
+    void withoutListener() throws SQLException {
+        Connection target = connection();
+        TimedDataSource dataSource = new TimedDataSource(dataSource(target), List.of());
+
+        assertSame(target, dataSource.getConnection());
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+
+    // connection palsu: statement "gagal" melempar SQLException, selain itu execute* mengembalikan nilai default
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return statement(PreparedStatement.class);
+                        case "createStatement":
+                            return statement(Statement.class);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private static Object statement(Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (args != null && "gagal".equals(args[0])) {
+                throw new SQLException("gagal");
+            }
+            if (method.getName().equals("executeBatch")) {
+                return new int[0];
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return method.getReturnType() == int.class ? 0 : null;
+        });
+    }
+
+}
@@ -0,0 +1,136 @@
+package programmerzamannow.restful.journal;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactJournalTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @SneakyThrows
+    void replayPendingAfterReopen() {
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.sync(journal.write(i, ("record-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+            journal.markApplied(1);
+        }
+
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            List<byte[]> pending = journal.readPending();
+
+            assertEquals(2, pending.size());
+            assertEquals("record-2", new String(pending.get(0), StandardCharsets.UTF_8));
+            assertEquals("record-3", new String(pending.get(1), StandardCharsets.UTF_8));
+            assertEquals(3, journal.lastSequence());
+
+            // tulisan baru lanjut di segment yang sama setelah frame terakhir
+            journal.sync(journal.write(4, "record-4".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            assertEquals(3, journal.readPending().size());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void rotateAndCompactSegments() {
+        byte[] payload = new byte[200];
+
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 20; i++) {
+                journal.sync(journal.write(i, payload));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            journal.markApplied(20);
+            assertEquals(1, journal.segmentCount());
+        }
+
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            assertTrue(journal.readPending().isEmpty());
+            assertEquals(20, journal.lastSequence());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void ignoreTornRecord() {
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            journal.sync(journal.write(1, "record-1".getBytes(StandardCharsets.UTF_8)));
+            journal.sync(journal.write(2, "record-2".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // rusak payload frame kedua seperti tulisan yang terpotong saat crash
+        Path segment = Files.list(directory)
+                .filter(file -> file.getFileName().toString().endsWith(".segment"))
+                .collect(Collectors.toList()).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 16 + 8 + 16);
+        }
+
+        try (ContactJournal journal = new ContactJournal(directory, SEGMENT_BYTES)) {
+            List<byte[]> pending = journal.readPending();
+
+            assertEquals(1, pending.size());
+            assertEquals("record-1", new String(pending.get(0), StandardCharsets.UTF_8));
+            assertEquals(1, journal.lastSequence());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentWritersShareSync() {
+        try (ContactJournal journal = new ContactJournal(directory, 64 * SEGMENT_BYTES)) {
+            Thread[] threads = new Thread[8];
+            long[] sequence = {0};
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        long position;
+                        synchronized (sequence) {
+                            position = writeUnchecked(journal, ++sequence[0]);
+                        }
+                        syncUnchecked(journal, position);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        try (ContactJournal journal = new ContactJournal(directory, 64 * SEGMENT_BYTES)) {
+            assertEquals(400, journal.readPending().size());
+        }
+    }
+
+    @SneakyThrows
+    private long writeUnchecked(ContactJournal journal, long sequence) {
+        return journal.write(sequence, ("record-" + sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SneakyThrows
+    private void syncUnchecked(ContactJournal journal, long position) {
+        journal.sync(position);
+    }
+
+}
@@ -0,0 +1,89 @@
+package programmerzamannow.restful.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void rejectBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void increaseWhenHealthyAndSaturated() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, 2.0);
+
+        for (int round = 0; round < 20; round++) {
+            runFullRound(limiter, FAST, false);
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void decreaseWhenLatencyGrows() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.5, 2.0);
+        runFullRound(limiter, FAST, false);
+        int healthyLimit = limiter.getLimit();
+
+        for (int round = 0; round < 10; round++) {
+            runFullRound(limiter, SLOW, false);
+        }
+
+        assertTrue(limiter.getLimit() < healthyLimit);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    void decreaseOnFailures() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.5, 2.0);
+
+        runFullRound(limiter, FAST, true);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void keepLimitWithMixedLatencies() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.5, 2.0);
+        long cheap = TimeUnit.MILLISECONDS.toNanos(2);
+        long expensive = TimeUnit.MILLISECONDS.toNanos(80);
+
+        // endpoint murah dan mahal bergantian, dua request bersamaan, tanpa kegagalan
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            limiter.release(cheap, false);
+            limiter.release(expensive, false);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    // isi semua slot lalu lepas semuanya, satu putaran = satu window sampel
+    private void runFullRound(AdaptiveConcurrencyLimiter limiter, long latency, boolean failed) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(latency, failed);
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package programmerzamannow.restful.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import programmerzamannow.restful.resolver.UserArgumentResolver;
+
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("access");
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void logEndpointPatternAndUser() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contacts/123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AccessLogFilter(true).doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(javax.servlet.ServletRequest req, javax.servlet.ServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/contacts/{contactId}");
+                req.setAttribute(UserArgumentResolver.USERNAME_ATTRIBUTE, "test");
+                ((HttpServletResponse) res).setStatus(404);
+            }
+        });
+
+        assertEquals(1, appender.list.size());
+        String line = appender.list.get(0).getFormattedMessage();
+        assertTrue(line.startsWith("method=GET endpoint=/api/contacts/{contactId} status=404 user=test latencyMs="), line);
+        assertTrue(line.matches(".* latencyMs=\\d+\\.\\d{3}"), line);
+    }
+
+    @Test
+    void logUriWithoutUser() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new AccessLogFilter(true).doFilter(request, response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage()
+                .startsWith("method=POST endpoint=/api/auth/login status=200 user=- latencyMs="));
+    }
+
+    @Test
+    void disabled() throws Exception {
+        new AccessLogFilter(false).doFilter(new MockHttpServletRequest("GET", "/api/users/current"),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void appendMillis() {
+        assertEquals("0.000", LogLines.appendMillis(new StringBuilder(), 999).toString());
+        assertEquals("0.007", LogLines.appendMillis(new StringBuilder(), 7_000).toString());
+        assertEquals("12.345", LogLines.appendMillis(new StringBuilder(), 12_345_678).toString());
+        assertEquals("1.050", LogLines.appendMillis(new StringBuilder(), 1_050_000).toString());
+    }
+
+}
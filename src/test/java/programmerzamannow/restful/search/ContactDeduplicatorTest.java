@@ -0,0 +1,78 @@
+package programmerzamannow.restful.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import programmerzamannow.restful.model.ContactDuplicateResponse;
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactDeduplicatorTest {
+
+    private final ContactDeduplicator deduplicator = new ContactDeduplicator();
+
+    @AfterEach
+    void tearDown() {
+        deduplicator.shutdown();
+    }
+
+    @Test
+    void soundex() {
+        assertEquals("R163", ContactNormalizer.soundex("Robert"));
+        assertEquals("R163", ContactNormalizer.soundex("Rupert"));
+        assertEquals("A261", ContactNormalizer.soundex("Ashcraft"));
+        assertEquals(ContactNormalizer.soundex("Muhammad"), ContactNormalizer.soundex("Muhamad"));
+    }
+
+    @Test
+    void findDuplicates() {
+        List<ContactResponse> contacts = new ArrayList<>();
+        contacts.add(contact("1", "Ilham", "Sidiq", null, "0812-3456-7890"));
+        contacts.add(contact("2", "Ilham", "Sidiq", "ilham@example.com", "081234567890"));
+        contacts.add(contact("3", "Hamzah", null, "ILHAM@example.com ", null));
+        contacts.add(contact("4", "Muhamad", "Ramadhan", null, null));
+        contacts.add(contact("5", "Muhammad", "Ramadhan", null, null));
+        contacts.add(contact("6", "Budi", "Santoso", "budi@example.com", "089999999999"));
+
+        List<ContactDuplicateResponse> duplicates = deduplicator.findDuplicates(contacts);
+
+        assertEquals(2, duplicates.size());
+
+        ContactDuplicateResponse ilham = duplicates.stream()
+                .filter(duplicate -> duplicate.getContacts().size() == 3)
+                .findFirst().orElseThrow();
+        assertEquals("2", ilham.getPrimaryId());
+        assertEquals(List.of("1", "3"), ilham.getDuplicateIds());
+        assertEquals(List.of("email", "name", "phone"), ilham.getReasons());
+
+        ContactDuplicateResponse muhammad = duplicates.stream()
+                .filter(duplicate -> duplicate.getContacts().size() == 2)
+                .findFirst().orElseThrow();
+        assertEquals(List.of("name"), muhammad.getReasons());
+    }
+
+    @Test
+    void findDuplicatesManyBlocks() {
+        List<ContactResponse> contacts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            contacts.add(contact("a" + i, "P" + i, null, "contact" + i + "@example.com", null));
+            contacts.add(contact("b" + i, "P" + i, null, "CONTACT" + i + "@example.com", null));
+        }
+
+        assertEquals(5000, deduplicator.findDuplicates(contacts).size());
+    }
+
+    private ContactResponse contact(String id, String firstName, String lastName, String email, String phone) {
+        return ContactResponse.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .build();
+    }
+
+}
@@ -0,0 +1,35 @@
+package programmerzamannow.restful.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactNormalizerTest {
+
+    @Test
+    void phone() {
+        assertEquals("+6281234567890", ContactNormalizer.phone("0812-3456-7890", "62"));
+        assertEquals("+6281234567890", ContactNormalizer.phone(" +62 812 3456 7890 ", "62"));
+        assertEquals("+6581234567", ContactNormalizer.phone("0065 8123 4567", "62"));
+        assertEquals("+6281234567890", ContactNormalizer.phone("6281234567890", "62"));
+        assertEquals("+6281234567890", ContactNormalizer.phone("62 812-3456-7890", "62"));
+        assertEquals(ContactNormalizer.phone("+6281234567890", "62"), ContactNormalizer.phone("6281234567890", "62"));
+        assertEquals("", ContactNormalizer.phone("tidak ada", "62"));
+        assertNull(ContactNormalizer.phone(null, "62"));
+    }
+
+    @Test
+    void email() {
+        assertEquals("ilham@example.com", ContactNormalizer.email("  Ilham@Example.COM "));
+        assertNull(ContactNormalizer.email(null));
+    }
+
+    @Test
+    void tokenize() {
+        assertEquals(List.of("ilham", "example", "com"), ContactNormalizer.tokenize("Ilham@example.com"));
+        assertTrue(ContactNormalizer.tokenize(null).isEmpty());
+    }
+
+}
@@ -0,0 +1,54 @@
+package programmerzamannow.restful.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    @Test
+    void collectShortestKeyFirst() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.insert("ilham muhammad", "1");
+        trie.insert("ilham", "1");
+        trie.insert("ilhami", "2");
+        trie.insert("budi", "3");
+
+        Map<String, String> result = trie.collect("il", 10);
+
+        assertEquals(List.of("1", "2"), List.copyOf(result.keySet()));
+        assertEquals("ilham", result.get("1"));
+        assertTrue(trie.collect("x", 10).isEmpty());
+    }
+
+    @Test
+    void collectLimit() {
+        PrefixTrie trie = new PrefixTrie();
+        for (int i = 0; i < 100; i++) {
+            trie.insert("contact" + i, String.valueOf(i));
+        }
+
+        assertEquals(5, trie.collect("contact", 5).size());
+    }
+
+    @Test
+    void removePrunesNodes() {
+        PrefixTrie trie = new PrefixTrie();
+        long empty = trie.estimatedBytes();
+
+        trie.insert("ilham", "1");
+        trie.insert("ilhami", "2");
+        assertTrue(trie.estimatedBytes() > empty);
+
+        trie.remove("ilhami", "2");
+        assertEquals(Map.of("1", "ilham"), trie.collect("ilh", 10));
+
+        trie.remove("ilham", "1");
+        assertTrue(trie.collect("", 10).isEmpty());
+        assertEquals(empty, trie.estimatedBytes());
+    }
+
+}
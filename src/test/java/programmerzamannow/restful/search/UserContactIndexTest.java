@@ -0,0 +1,83 @@
+package programmerzamannow.restful.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import programmerzamannow.restful.model.ContactResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserContactIndexTest {
+
+    private UserContactIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserContactIndex();
+        index.put(contact("1", "Ilham Muhammad", "Sidiq", "ilham@example.com", "0812-3456-7890"));
+        index.put(contact("2", "Hamzah", "Muhammad Ramadhan", "hamzah@gmail.com", "+62 857 1111 2222"));
+        index.put(contact("3", "Budi", "Ilhami", "budi@example.com", null));
+    }
+
+    @Test
+    void searchToken() {
+        List<ContactResponse> result = index.search("hamzah", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("2", result.get(0).getId());
+    }
+
+    @Test
+    void searchPrefixRanked() {
+        List<ContactResponse> result = index.search("ilh", 10);
+
+        assertEquals(2, result.size());
+        assertEquals("1", result.get(0).getId());
+        assertEquals("3", result.get(1).getId());
+    }
+
+    @Test
+    void searchAllTokensMustMatch() {
+        List<ContactResponse> result = index.search("muhammad sidiq", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("1", result.get(0).getId());
+    }
+
+    @Test
+    void searchPhoneDigits() {
+        assertEquals("1", index.search("0812 3456", 10).get(0).getId());
+        assertEquals("1", index.search("7890", 10).get(0).getId());
+        assertEquals("2", index.search("1111-2222", 10).get(0).getId());
+    }
+
+    @Test
+    void searchEmail() {
+        List<ContactResponse> result = index.search("budi@example.com", 10);
+
+        assertEquals("3", result.get(0).getId());
+    }
+
+    @Test
+    void updateAndRemove() {
+        index.put(contact("2", "Zaid", null, null, null));
+        assertTrue(index.search("hamzah", 10).isEmpty());
+        assertEquals("2", index.search("zaid", 10).get(0).getId());
+
+        index.remove("2");
+        assertTrue(index.search("zaid", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private ContactResponse contact(String id, String firstName, String lastName, String email, String phone) {
+        return ContactResponse.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .build();
+    }
+
+}
@@ -0,0 +1,113 @@
+package programmerzamannow.restful.search;
+
+import org.junit.jupiter.api.Test;
+import programmerzamannow.restful.cache.InMemorySharedCache;
+import programmerzamannow.restful.cache.SharedCache;
+import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.ContactChangedEvent;
+import programmerzamannow.restful.model.ContactResponse;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserIndexCacheTest {
+
+    private final ContactRepository contactRepository = mock(ContactRepository.class);
+
+    private final SharedCache sharedCache = new InMemorySharedCache();
+
+    private final User ilham = user("ilhaam.ms");
+
+    private final User hamzah = user("hamzah");
+
+    private UserIndexCache<UserContactIndex> newCache(long memoryBudgetBytes) {
+        return new UserIndexCache<>("contact-search", contactRepository, sharedCache,
+                UserContactIndex::new, memoryBudgetBytes);
+    }
+
+    @Test
+    void loadOnceThenUpdateByEvent() {
+        when(contactRepository.findAllByUser(ilham)).thenReturn(List.of(contact("1", "Ilham")));
+        UserIndexCache<UserContactIndex> cache = newCache(Long.MAX_VALUE);
+
+        cache.get(ilham);
+        cache.onContactChanged(created("ilhaam.ms", "2", "Hamzah"));
+
+        assertEquals(2, cache.get(ilham).size());
+        verify(contactRepository, times(1)).findAllByUser(ilham);
+    }
+
+    @Test
+    void evictLeastRecentlyUsedOverBudget() {
+        when(contactRepository.findAllByUser(ilham)).thenReturn(List.of(contact("1", "Ilham")));
+        when(contactRepository.findAllByUser(hamzah)).thenReturn(List.of(contact("2", "Hamzah")));
+        UserIndexCache<UserContactIndex> cache = newCache(new UserContactIndex().estimatedBytes() + 1);
+
+        cache.get(ilham);
+        cache.get(hamzah);
+        cache.get(hamzah);
+        cache.get(ilham);
+
+        verify(contactRepository, times(2)).findAllByUser(ilham);
+        verify(contactRepository, times(1)).findAllByUser(hamzah);
+    }
+
+    @Test
+    void changeDuringBuildIsNotCached() {
+        AtomicReference<UserIndexCache<UserContactIndex>> cache = new AtomicReference<>();
+        when(contactRepository.findAllByUser(ilham)).thenAnswer(invocation -> {
+            // commit lain selesai setelah query membaca data tapi sebelum index disimpan
+            cache.get().onContactChanged(created("ilhaam.ms", "2", "Hamzah"));
+            return List.of(contact("1", "Ilham"));
+        }).thenReturn(List.of(contact("1", "Ilham"), contact("2", "Hamzah")));
+        cache.set(newCache(Long.MAX_VALUE));
+
+        assertEquals(1, cache.get().get(ilham).size());
+        assertEquals(2, cache.get().get(ilham).size());
+        verify(contactRepository, times(2)).findAllByUser(ilham);
+    }
+
+    @Test
+    void changeOnOtherInstanceInvalidates() {
+        when(contactRepository.findAllByUser(ilham)).thenReturn(List.of(contact("1", "Ilham")));
+        UserIndexCache<UserContactIndex> node1 = newCache(Long.MAX_VALUE);
+        UserIndexCache<UserContactIndex> node2 = newCache(Long.MAX_VALUE);
+
+        node1.get(ilham);
+        node2.get(ilham);
+        node1.onContactChanged(created("ilhaam.ms", "2", "Hamzah"));
+
+        // node1 menerapkan perubahan langsung, node2 memuat ulang dari database
+        node1.get(ilham);
+        node2.get(ilham);
+        verify(contactRepository, times(3)).findAllByUser(ilham);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    private static Contact contact(String id, String firstName) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setFirstName(firstName);
+        return contact;
+    }
+
+    private static ContactChangedEvent created(String username, String id, String firstName) {
+        return ContactChangedEvent.builder()
+                .username(username)
+                .type(ContactChangedEvent.Type.CREATED)
+                .ids(List.of(id))
+                .contacts(List.of(ContactResponse.builder().id(id).firstName(firstName).build()))
+                .build();
+    }
+
+}
@@ -0,0 +1,73 @@
+package programmerzamannow.restful.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// bukan unit test, dijalankan manual untuk membandingkan hash per detik per core:
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) programmerzamannow.restful.security.BCryptBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BCryptBenchmark {
+
+    @Param({"6", "10"})
+    private int cost;
+
+    private String[] passwords;
+
+    private String[] hashes;
+
+    @Setup
+    public void setUp() {
+        passwords = new String[InterleavedBCrypt.LANES];
+        hashes = new String[InterleavedBCrypt.LANES];
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = "rahasia-" + i;
+            hashes[i] = BCrypt.hashpw(passwords[i], BCrypt.gensalt(cost));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(InterleavedBCrypt.LANES)
+    public boolean scalar() {
+        boolean valid = true;
+        for (int i = 0; i < passwords.length; i++) {
+            valid &= BCrypt.checkpw(passwords[i], hashes[i]);
+        }
+        return valid;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(InterleavedBCrypt.LANES)
+    public boolean[] interleaved() {
+        return InterleavedBCrypt.checkpw(passwords, hashes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BCryptBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
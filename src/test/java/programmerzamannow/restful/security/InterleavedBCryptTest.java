@@ -0,0 +1,98 @@
+package programmerzamannow.restful.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterleavedBCryptTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void sameHashAsBCrypt() {
+        // jumlah yang bukan kelipatan LANES dan cost yang bercampur, supaya lane kosong dan pengelompokan ikut teruji
+        String[] passwords = new String[11];
+        String[] salts = new String[passwords.length];
+        String[] prefixes = {"$2a", "$2b", "$2y"};
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = randomPassword(i * 7);
+            salts[i] = BCrypt.gensalt(prefixes[i % prefixes.length], 4 + i % 2, new SecureRandom());
+        }
+
+        String[] hashes = InterleavedBCrypt.hashpw(passwords, salts);
+        for (int i = 0; i < passwords.length; i++) {
+            assertEquals(BCrypt.hashpw(passwords[i], salts[i]), hashes[i], "password " + i);
+        }
+    }
+
+    @Test
+    void sameHashForSignExtensionPasswords() {
+        // karakter non-ASCII menghasilkan byte negatif, jalur safety measure $2a
+        String[] passwords = {"£££", "ππππππππ", "ÿ£345", "", "password"};
+        String[] salts = new String[passwords.length];
+        for (int i = 0; i < passwords.length; i++) {
+            salts[i] = BCrypt.gensalt(i % 2 == 0 ? "$2a" : "$2b", 4, new SecureRandom());
+        }
+
+        String[] hashes = InterleavedBCrypt.hashpw(passwords, salts);
+        for (int i = 0; i < passwords.length; i++) {
+            assertEquals(BCrypt.hashpw(passwords[i], salts[i]), hashes[i], "password " + i);
+        }
+    }
+
+    @Test
+    void checkMatchesBCrypt() {
+        String[] passwords = {"rahasia", "salah", "rahasia", "12345", "tidak-ada"};
+        String[] hashes = {
+                BCrypt.hashpw("rahasia", BCrypt.gensalt(4)),
+                BCrypt.hashpw("rahasia", BCrypt.gensalt(4)),
+                BCrypt.hashpw("rahasia", BCrypt.gensalt(5)),
+                BCrypt.hashpw("12345", BCrypt.gensalt(4)),
+                BCrypt.hashpw("lain", BCrypt.gensalt(4))
+        };
+
+        assertArrayEquals(new boolean[]{true, false, true, true, false}, InterleavedBCrypt.checkpw(passwords, hashes));
+    }
+
+    @Test
+    void unsupportedFormatFallsBackToBCrypt() {
+        // $2x (bug sign extension lama) tidak dihitung interleaved, hasilnya tetap harus sama
+        String legacy = "$2x$05$/OK.fbVrR/bpIqNJ5ianF.CE5elHaaO4EbggVDjb8P19RukzXSM3e";
+
+        String[] passwords = {"£", "rahasia"};
+        String[] hashes = {legacy, BCrypt.hashpw("rahasia", BCrypt.gensalt(4))};
+
+        boolean[] result = InterleavedBCrypt.checkpw(passwords, hashes);
+        assertEquals(BCrypt.checkpw("£", legacy), result[0]);
+        assertTrue(result[1]);
+    }
+
+    @Test
+    void verifierUsesSelectedImplementation() {
+        String[] passwords = {"a", "b", "c", "d", "e", "f"};
+        String[] hashes = new String[passwords.length];
+        for (int i = 0; i < passwords.length; i++) {
+            hashes[i] = BCrypt.hashpw(i % 2 == 0 ? passwords[i] : "x", BCrypt.gensalt(4));
+        }
+
+        for (String implementation : new String[]{"scalar", "interleaved"}) {
+            PasswordVerifier verifier = new PasswordVerifier(implementation);
+            boolean[] valid = new boolean[passwords.length];
+            verifier.checkAll(passwords, hashes, valid, 1, passwords.length);
+
+            assertArrayEquals(new boolean[]{false, false, true, false, true, false}, valid, implementation);
+        }
+    }
+
+    private String randomPassword(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) (0x21 + random.nextInt(0x5e)));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,122 @@
+package programmerzamannow.restful.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(3, 10, 1000, 60_000, 900_000, 1000);
+
+    @Test
+    void blockAfterFreeAttemptsWithGrowingBackoff() {
+        long now = 1_000_000;
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now));
+
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        assertTrue(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now + 999));
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now + 1000));
+
+        // gagal lagi setelah jeda selesai, jeda berikutnya dua kali lipat
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now + 1000);
+        assertTrue(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now + 2999));
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now + 3000));
+    }
+
+    @Test
+    void usernameIsCaseInsensitive() {
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            throttle.onFailure("Ilhaam.MS", "10.0.0." + i, now);
+        }
+
+        assertTrue(throttle.isBlocked("ilhaam.ms", "10.0.0.9", now));
+    }
+
+    @Test
+    void blockAddressAcrossUsernames() {
+        long now = 1_000_000;
+        for (int i = 0; i < 10; i++) {
+            throttle.onFailure("user" + i, "10.0.0.1", now);
+        }
+
+        assertTrue(throttle.isBlocked("lain", "10.0.0.1", now));
+        assertFalse(throttle.isBlocked("lain", "10.0.0.2", now));
+    }
+
+    @Test
+    void successResetsUsernameOnly() {
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        }
+
+        throttle.onSuccess("ilhaam.ms", "10.0.0.1");
+
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.2", now));
+    }
+
+    @Test
+    void forgetOldFailures() {
+        long now = 1_000_000;
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+
+        throttle.onFailure("ilhaam.ms", "10.0.0.1", now + 900_001);
+
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.1", now + 900_001));
+    }
+
+    @Test
+    void concurrentAttemptsCappedByFreeAttempts() {
+        long now = 1_000_000;
+        // tiga request paralel masih menunggu BCrypt, request keempat sudah ditolak
+        for (int i = 0; i < 3; i++) {
+            assertTrue(throttle.tryAcquire("ilhaam.ms", "10.0.0." + i, now));
+        }
+        assertFalse(throttle.tryAcquire("ilhaam.ms", "10.0.0.9", now));
+
+        for (int i = 0; i < 3; i++) {
+            throttle.onFailure("ilhaam.ms", "10.0.0." + i, now);
+        }
+        assertFalse(throttle.tryAcquire("ilhaam.ms", "10.0.0.9", now + 999));
+    }
+
+    @Test
+    void oneAttemptAtATimeAfterBackoff() {
+        long now = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(throttle.tryAcquire("ilhaam.ms", "10.0.0.1", now));
+            throttle.onFailure("ilhaam.ms", "10.0.0.1", now);
+        }
+
+        assertTrue(throttle.tryAcquire("ilhaam.ms", "10.0.0.1", now + 1000));
+        assertFalse(throttle.tryAcquire("ilhaam.ms", "10.0.0.2", now + 1000));
+    }
+
+    @Test
+    void releaseDoesNotCountAsFailure() {
+        long now = 1_000_000;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(throttle.tryAcquire("ilhaam.ms", "10.0.0.1", now));
+            throttle.release("ilhaam.ms", "10.0.0.1");
+        }
+
+        assertFalse(throttle.isBlocked("ilhaam.ms", "10.0.0.1", now));
+    }
+
+    @Test
+    void addressReservationCappedAcrossUsernames() {
+        long now = 1_000_000;
+        for (int i = 0; i < 10; i++) {
+            assertTrue(throttle.tryAcquire("user" + i, "10.0.0.1", now));
+        }
+
+        assertFalse(throttle.tryAcquire("lain", "10.0.0.1", now));
+        // pesanan username dilepas lagi saat alamat ditolak
+        assertTrue(throttle.tryAcquire("lain", "10.0.0.2", now));
+    }
+
+}
@@ -0,0 +1,26 @@
+package programmerzamannow.restful.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenFormatTest {
+
+    @Test
+    void readExpiryFromGeneratedToken() {
+        long expiredAt = System.currentTimeMillis() + 1000;
+        String token = TokenFormat.generate(expiredAt);
+
+        assertTrue(token.length() <= 100);
+        assertEquals(expiredAt, TokenFormat.expiredAt(token));
+    }
+
+    @Test
+    void legacyTokenHasNoExpiry() {
+        assertNull(TokenFormat.expiredAt("test"));
+        assertNull(TokenFormat.expiredAt("0b2a4c1e-8f2d-4e1a-9c3b-7d6e5f4a3b2c"));
+        assertNull(TokenFormat.expiredAt(".abc"));
+        assertNull(TokenFormat.expiredAt("zz.abc"));
+    }
+
+}
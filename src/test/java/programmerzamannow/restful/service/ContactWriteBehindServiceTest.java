@@ -0,0 +1,157 @@
+package programmerzamannow.restful.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import programmerzamannow.restful.entity.Contact;
+import programmerzamannow.restful.exception.UnavailableException;
+import programmerzamannow.restful.journal.ContactWriteRecord;
+import programmerzamannow.restful.repository.ContactRepository;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ContactWriteBehindServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final ContactRepository contactRepository = mock(ContactRepository.class);
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private ContactWriteBehindService service;
+
+    @AfterEach
+    @SneakyThrows
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void flushTimesOutWhileDatabaseDown() {
+        doThrow(new CannotCreateTransactionException("Could not open JPA EntityManager"))
+                .when(transactionTemplate).executeWithoutResult(any());
+        start();
+
+        service.submit(record("contact-1"));
+
+        assertSame(UnavailableException.FLUSH_TIMEOUT, assertThrows(UnavailableException.class, service::flush));
+    }
+
+    @Test
+    @SneakyThrows
+    void permanentFailureMovedToDeadLetter() {
+        runInTransaction();
+        doThrow(new DataIntegrityViolationException("Data too long for column 'first_name'"))
+                .when(entityManager).persist(argThat(contact -> "bad".equals(((Contact) contact).getId())));
+        start();
+
+        service.submit(record("contact-1"));
+        service.submit(record("bad"));
+        service.submit(record("contact-2"));
+        service.flush();
+
+        String deadLetter = Files.readString(directory.resolve("dead-letter.jsonl"));
+        assertTrue(deadLetter.contains("\"id\":\"bad\""), deadLetter);
+        assertFalse(deadLetter.contains("contact-1"), deadLetter);
+        verify(entityManager, atLeastOnce()).persist(argThat(contact -> "contact-2".equals(((Contact) contact).getId())));
+    }
+
+    @Test
+    @SneakyThrows
+    void transientFailureRetried() {
+        doThrow(new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("Connection is not available")))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+                    return null;
+                })
+                .when(transactionTemplate).executeWithoutResult(any());
+        start();
+
+        service.submit(record("contact-1"));
+        service.flush();
+
+        assertFalse(Files.exists(directory.resolve("dead-letter.jsonl")));
+        verify(entityManager).persist(any(Contact.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void failedJournalWriteDoesNotBlockFlush() {
+        runInTransaction();
+        // gagal serialisasi sama seperti gagal menulis journal: IOException sebelum frame ditulis
+        start(new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                if (value instanceof ContactWriteRecord && "bad".equals(((ContactWriteRecord) value).getId())) {
+                    throw new JsonMappingException(null, "journal full");
+                }
+                return super.writeValueAsBytes(value);
+            }
+        });
+
+        assertSame(UnavailableException.JOURNAL_UNAVAILABLE,
+                assertThrows(UnavailableException.class, () -> service.submit(record("bad"))));
+        service.flush();
+
+        service.submit(record("contact-1"));
+        service.flush();
+
+        verify(entityManager).persist(argThat(contact -> "contact-1".equals(((Contact) contact).getId())));
+        verify(entityManager, never()).persist(argThat(contact -> "bad".equals(((Contact) contact).getId())));
+    }
+
+    private void start() {
+        start(new ObjectMapper());
+    }
+
+    @SneakyThrows
+    private void start(ObjectMapper objectMapper) {
+        service = new ContactWriteBehindService(contactRepository, mock(ContactNormalizationService.class), entityManager,
+                transactionTemplate, mock(ApplicationEventPublisher.class), objectMapper,
+                true, directory.toString(), 200, 5, 1024 * 1024, 10, 300);
+        service.start();
+    }
+
+    private void runInTransaction() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ContactWriteRecord record(String id) {
+        return ContactWriteRecord.builder()
+                .operation(ContactWriteRecord.Operation.CREATE)
+                .username("ilhaam.ms")
+                .id(id)
+                .firstName("Hamzah")
+                .updatedAt(System.currentTimeMillis())
+                .build();
+    }
+
+}
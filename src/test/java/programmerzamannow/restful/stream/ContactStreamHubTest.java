@@ -0,0 +1,112 @@
+package programmerzamannow.restful.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import programmerzamannow.restful.cache.TieredCache;
+import programmerzamannow.restful.entity.User;
+import programmerzamannow.restful.event.UserLoggedOutEvent;
+import programmerzamannow.restful.exception.TooManyRequestsException;
+import programmerzamannow.restful.repository.UserRepository;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContactStreamHubTest {
+
+    @SuppressWarnings("unchecked")
+    private final TieredCache<User> userTokenCache = mock(TieredCache.class);
+
+    private final ContactStreamHub hub = new ContactStreamHub(new ObjectMapper(), mock(UserRepository.class), userTokenCache,
+            3600000, 64, 10, 1, 5000, 50);
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    void logoutClosesStreamsOfThatToken() {
+        User user = user("test", System.currentTimeMillis() + 60000);
+        when(userTokenCache.get(eq("test"), any())).thenReturn(user);
+
+        hub.subscribe(user);
+        hub.subscribe(user("other", System.currentTimeMillis() + 60000));
+        assertEquals(2, hub.getConnectionCount());
+
+        hub.onUserLoggedOut(UserLoggedOutEvent.builder().username("ilhaam.ms").token("test").build());
+
+        assertTrue(waitUntil(() -> hub.getConnectionCount() == 1));
+    }
+
+    @Test
+    @SneakyThrows
+    void revokedTokenClosedOnHeartbeat() {
+        // token sudah tidak ada di database, misal logout di instance lain
+        when(userTokenCache.get(eq("test"), any())).thenReturn(null);
+
+        hub.subscribe(user("test", System.currentTimeMillis() + 60000));
+
+        assertTrue(waitUntil(() -> hub.getConnectionCount() == 0));
+    }
+
+    @Test
+    @SneakyThrows
+    void expiredTokenClosedOnHeartbeat() {
+        User user = user("test", System.currentTimeMillis() + 100);
+        when(userTokenCache.get(eq("test"), any())).thenReturn(user);
+
+        hub.subscribe(user);
+        assertEquals(1, hub.getConnectionCount());
+
+        assertTrue(waitUntil(() -> hub.getConnectionCount() == 0));
+    }
+
+    @Test
+    @SneakyThrows
+    void validTokenKeptOpen() {
+        User user = user("test", System.currentTimeMillis() + 60000);
+        when(userTokenCache.get(eq("test"), any())).thenReturn(user);
+
+        hub.subscribe(user);
+        Thread.sleep(200);
+
+        assertEquals(1, hub.getConnectionCount());
+    }
+
+    @Test
+    void rejectOverConnectionLimit() {
+        User user = user("test", System.currentTimeMillis() + 60000);
+        when(userTokenCache.get(eq("test"), any())).thenReturn(user);
+
+        for (int i = 0; i < 10; i++) {
+            hub.subscribe(user);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> hub.subscribe(user));
+        assertEquals(10, hub.getConnectionCount());
+    }
+
+    private static User user(String token, long tokenExpiredAt) {
+        User user = new User();
+        user.setUsername("ilhaam.ms");
+        user.setToken(token);
+        user.setTokenExpiredAt(tokenExpiredAt);
+        return user;
+    }
+
+    @SneakyThrows
+    private static boolean waitUntil(BooleanSupplier condition) {
+        for (int i = 0; i < 50 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+
+}
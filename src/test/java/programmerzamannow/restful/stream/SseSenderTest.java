@@ -0,0 +1,118 @@
+package programmerzamannow.restful.stream;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseSenderTest {
+
+    // satu thread sender, supaya client yang macet pasti menahan client lain kalau tidak ada thread pengganti
+    private final SseSender sender = new SseSender("test", 1, 200);
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdown();
+    }
+
+    @Test
+    @SneakyThrows
+    void stalledSendDoesNotBlockOtherChannels() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        AtomicBoolean stalledClosed = new AtomicBoolean();
+
+        SseSender.Channel stalledChannel = sender.open(stalled, new OneMessage(), () -> stalledClosed.set(true));
+        SseSender.Channel healthyChannel = sender.open(healthy, new OneMessage(), () -> {
+        });
+
+        stalledChannel.wake();
+        assertTrue(stalled.started.await(1, TimeUnit.SECONDS));
+        healthyChannel.wake();
+
+        assertTrue(healthy.sent.await(2, TimeUnit.SECONDS), "healthy channel waited for the stalled one");
+        assertTrue(stalledClosed.get());
+        assertTrue(stalledChannel.isClosed());
+        assertFalse(healthyChannel.isClosed());
+
+        // send yang macet akhirnya selesai (write timeout), emitter-nya ditutup di thread sender
+        release.countDown();
+        assertTrue(stalled.completed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @SneakyThrows
+    void closeCompletesEmitter() {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        AtomicInteger closed = new AtomicInteger();
+        SseSender.Channel channel = sender.open(emitter, new OneMessage(), closed::incrementAndGet);
+
+        channel.close();
+        channel.close();
+
+        assertTrue(emitter.completed.await(1, TimeUnit.SECONDS));
+        assertEquals(1, closed.get());
+
+        channel.wake();
+        assertEquals(1, emitter.sent.getCount());
+    }
+
+    private static class OneMessage implements SseSender.Drain {
+
+        private volatile boolean pending = true;
+
+        @Override
+        public void drain(SseSender.Channel channel) throws IOException {
+            pending = false;
+            channel.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public boolean hasPending() {
+            return pending;
+        }
+
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        @SneakyThrows
+        public void send(SseEventBuilder builder) {
+            started.countDown();
+            if (release != null) {
+                // seolah-olah buffer socket client penuh
+                release.await();
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+    }
+
+}